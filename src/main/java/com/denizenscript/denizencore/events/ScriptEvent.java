@@ -17,6 +17,7 @@ import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.YamlConfiguration;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.utilities.scheduling.OneTimeSchedulable;
+import com.denizenscript.denizencore.utilities.scheduling.WakeSignals;
 import com.denizenscript.denizencore.utilities.text.StringHolder;
 import com.denizenscript.denizencore.DenizenCore;
 
@@ -391,6 +392,9 @@ public abstract class ScriptEvent implements ContextSource, Cloneable {
         if (cancelled) {
             DenizenCore.schedule(new OneTimeSchedulable(resetRunnable, 0.01f));
         }
+        if (WakeSignals.hasListeners()) {
+            WakeSignals.fire(WakeSignals.eventSignal(getName()));
+        }
     }
 
     private String currentEvent;
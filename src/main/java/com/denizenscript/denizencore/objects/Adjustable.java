@@ -1,5 +1,6 @@
 package com.denizenscript.denizencore.objects;
 
+import com.denizenscript.denizencore.objects.properties.PropertyParser;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 
 public interface Adjustable extends ObjectTag {
@@ -17,6 +18,8 @@ public interface Adjustable extends ObjectTag {
             Debug.echoDebug(mechanism.context, "Adjust mechanism '" + mechanism.getName() + "' on object of type '" + getObjectType() + "'...");
         }
         adjust(mechanism);
+        PropertyParser.invalidatePropertiesString(this);
+        invalidateIdentity();
         mechanism.autoReport();
     }
 
@@ -42,6 +45,8 @@ public interface Adjustable extends ObjectTag {
             }
         }
         applyProperty(mechanism);
+        PropertyParser.invalidatePropertiesString(this);
+        invalidateIdentity();
         mechanism.autoReport();
     }
 }
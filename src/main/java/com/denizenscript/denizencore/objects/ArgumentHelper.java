@@ -1,6 +1,7 @@
 package com.denizenscript.denizencore.objects;
 
 import com.denizenscript.denizencore.objects.core.ElementTag;
+import com.denizenscript.denizencore.scripts.queues.ExecutionContext;
 import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 
@@ -60,10 +61,6 @@ public class ArgumentHelper {
         return arg_list;
     }
 
-    public static List<String> specialInterpretTrickStrings = null;
-
-    public static List<Argument> specialInterpretTrickObjects = null;
-
     public static List<Argument> interpretArguments(List<Argument> args) {
         for (Argument arg : args) {
             if (arg.needsFill || arg.hasSpecialPrefix) {
@@ -88,8 +85,9 @@ public class ArgumentHelper {
      * @return a list of Arguments
      */
     public static List<Argument> interpret(List<String> args) {
-        if (args == specialInterpretTrickStrings) {
-            return interpretArguments(specialInterpretTrickObjects);
+        ExecutionContext context = ExecutionContext.current();
+        if (args == context.specialInterpretTrickStrings) {
+            return interpretArguments(context.specialInterpretTrickObjects);
         }
         List<Argument> arg_list = new ArrayList<>(args.size());
         for (String string : args) {
@@ -5,6 +5,7 @@ import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.tags.TagContext;
+import com.denizenscript.denizencore.tags.TagManager;
 
 import java.io.IOException;
 import java.lang.invoke.CallSite;
@@ -13,7 +14,6 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ObjectFetcher {
@@ -61,6 +61,7 @@ public class ObjectFetcher {
         }
 
         objects.putAll(adding);
+        TagManager.dispatchVersion++;
         Debug.echoApproval("Added objects to the ObjectFetcher " + adding.keySet().toString());
         fetchable_objects.clear();
     }
@@ -148,18 +149,117 @@ public class ObjectFetcher {
         }
     }
 
-    final static Pattern PROPERTIES_PATTERN = Pattern.compile("([^\\[]+)\\[(.+=.+)\\]", Pattern.CASE_INSENSITIVE | Pattern.DOTALL | Pattern.MULTILINE);
-
     public final static Pattern DESCRIBED_PATTERN =
             Pattern.compile("[^\\[]+\\[.+=.+\\]", Pattern.DOTALL | Pattern.MULTILINE);
 
+    /**
+     * The parts of an object's notation, like 'x@body[name=value;name=value]'.
+     */
+    public static class ObjectNotation {
+
+        /**
+         * The text before the properties, or the whole input if there are no properties.
+         */
+        public final String base;
+
+        /**
+         * Each property as a {name, value} pair (with escaped semicolons restored in the value),
+         * or as a single-entry array holding the raw text if it has no '='. Null if the input has no property list.
+         */
+        public final List<String[]> properties;
+
+        /**
+         * Whether the input is in the 'base[name=value...]' form (as matched by DESCRIBED_PATTERN).
+         */
+        public final boolean described;
+
+        private ObjectNotation(String base, List<String[]> properties, boolean described) {
+            this.base = base;
+            this.properties = properties;
+            this.described = described;
+        }
+    }
+
+    /**
+     * The most parsed notations to keep for reuse. Only inputs with a property list are kept, as anything else is parsed instantly anyway.
+     */
+    public static int notationCacheSize = 1024;
+
+    private static final LinkedHashMap<String, ObjectNotation> notationCache = new LinkedHashMap<String, ObjectNotation>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ObjectNotation> eldest) {
+            return size() > notationCacheSize;
+        }
+    };
+
+    /**
+     * Splits an object's notation into its base and properties in a single pass, reusing earlier results for recently seen input.
+     */
+    public static ObjectNotation parseNotation(String input) {
+        int firstBracket = input.indexOf('[');
+        if (firstBracket == -1 || input.charAt(input.length() - 1) != ']') {
+            return new ObjectNotation(input, null, false);
+        }
+        synchronized (notationCache) {
+            ObjectNotation cached = notationCache.get(input);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<String[]> properties = new ArrayList<>();
+        boolean hasEquals = false;
+        int start = firstBracket + 1;
+        int brackets = 0;
+        int equals = -1;
+        for (int i = start; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '[') {
+                brackets++;
+            }
+            else if (c == ']' && brackets > 0) {
+                brackets--;
+            }
+            else if ((c == ';' || c == ']') && brackets == 0) {
+                if (equals == -1) {
+                    properties.add(new String[] {input.substring(start, i)});
+                }
+                else {
+                    properties.add(new String[] {input.substring(start, equals), input.substring(equals + 1, i).replace((char) 0x2011, ';')});
+                }
+                start = i + 1;
+                equals = -1;
+            }
+            else if (c == '=') {
+                if (equals == -1) {
+                    equals = i;
+                }
+                // Matches DESCRIBED_PATTERN: an '=' with something on both sides, inside the outer brackets
+                if (i > firstBracket + 1 && i < input.length() - 2) {
+                    hasEquals = true;
+                }
+            }
+        }
+        ObjectNotation notation = new ObjectNotation(input.substring(0, firstBracket), Collections.unmodifiableList(properties), hasEquals && firstBracket > 0);
+        synchronized (notationCache) {
+            notationCache.put(input, notation);
+        }
+        return notation;
+    }
+
+    /**
+     * Returns whether the input is in the 'base[name=value...]' form. Equivalent to matching DESCRIBED_PATTERN.
+     */
+    public static boolean isDescribed(String input) {
+        return parseNotation(input).described;
+    }
+
     public static boolean checkMatch(Class<? extends ObjectTag> dClass, String value) {
         if (value == null || dClass == null) {
             return false;
         }
-        Matcher m = PROPERTIES_PATTERN.matcher(value);
         try {
-            return matches.get(dClass).matches(m.matches() ? m.group(1) : value);
+            ObjectNotation notation = parseNotation(value);
+            return matches.get(dClass).matches(notation.described ? notation.base : value);
         }
         catch (Exception e) {
             Debug.echoError(e);
@@ -204,18 +304,17 @@ public class ObjectFetcher {
 
     public static <T extends ObjectTag> T getObjectFrom(Class<T> dClass, String value, TagContext context) {
         try {
-            List<String> matches = separateProperties(value);
-            boolean matched = matches != null && Adjustable.class.isAssignableFrom(dClass);
-            T gotten = (T) valueof.get(dClass).valueOf(matched ? matches.get(0) : value, context);
+            ObjectNotation notation = parseNotation(value);
+            boolean matched = notation.properties != null && Adjustable.class.isAssignableFrom(dClass);
+            T gotten = (T) valueof.get(dClass).valueOf(matched ? notation.base : value, context);
             if (gotten != null && matched) {
-                for (int i = 1; i < matches.size(); i++) {
-                    List<String> data = CoreUtilities.split(matches.get(i), '=', 2);
-                    if (data.size() != 2) {
-                        Debug.echoError("Invalid property string '" + matches.get(i) + "'!");
+                for (String[] property : notation.properties) {
+                    if (property.length != 2) {
+                        Debug.echoError("Invalid property string '" + property[0] + "'!");
                         continue;
                     }
-                    ((Adjustable) gotten).safeApplyProperty(new Mechanism(new ElementTag(data.get(0)),
-                            new ElementTag((data.get(1)).replace((char) 0x2011, ';')), context));
+                    ((Adjustable) gotten).safeApplyProperty(new Mechanism(new ElementTag(property[0]),
+                            new ElementTag(property[1]), context));
                 }
             }
             return gotten;
@@ -242,22 +341,30 @@ public class ObjectFetcher {
         if (value == null) {
             return null;
         }
+        Class<? extends ObjectTag> toFetch = pickObjectTypeFor(value);
+        if (toFetch != null) {
+            ObjectTag fetched = getObjectFrom(toFetch, value, context);
+            // Only return if a valid object is born... otherwise, use an element.
+            if (fetched != null) {
+                return fetched;
+            }
+        }
+        // If all else fails, just use a simple Element!
+        return new ElementTag(value);
+    }
+
+    /**
+     * Returns the object type named by the input's @ notation, or null if it has no valid @ notation.
+     */
+    public static Class<? extends ObjectTag> pickObjectTypeFor(String value) {
         // While many inputs are valid as various object types
         // (EG, 'bob' could be a player or NPC's name)
         // Only use specific objects for input with @ notation
-        if (value.contains("@")) {
-            String type = value.split("@", 2)[0];
+        int atIndex = value.indexOf('@');
+        if (atIndex != -1) {
             // Of course, ensure the @ notation is valid first
-            if (canFetch(type)) {
-                Class toFetch = getObjectClass(type);
-                ObjectTag fetched = getObjectFrom(toFetch, value, context);
-                // Only return if a valid object is born... otherwise, use an element.
-                if (fetched != null) {
-                    return fetched;
-                }
-            }
+            return getObjectClass(value.substring(0, atIndex));
         }
-        // If all else fails, just use a simple Element!
-        return new ElementTag(value);
+        return null;
     }
 }
@@ -110,6 +110,19 @@ public interface ObjectTag {
     String identifySimple();
 
 
+    /**
+     * Drops any cached identify() output, as the object has changed.
+     * Types may opt in to caching their identity by keeping their identify() output and clearing it here.
+     * This is called automatically after a mechanism is applied to an Adjustable object,
+     * but any other change to a caching object must call it directly.
+     * Invalidation does not propagate: changing an object does not invalidate any object that contains it.
+     * So a type must not cache an identity that includes the identity of a value that can change on its own
+     * (such as a ListTag or Adjustable object) - CustomObjectTag, for example, only caches while all its values are ElementTags.
+     */
+    default void invalidateIdentity() {
+    }
+
+
     /**
      * Sets the prefix for this argument, otherwise uses the default.
      *
@@ -11,7 +11,6 @@ import com.denizenscript.denizencore.tags.Attribute;
 import com.denizenscript.denizencore.tags.TagContext;
 
 import java.util.Map;
-import java.util.regex.Matcher;
 
 public class CustomObjectTag implements ObjectTag, Adjustable {
 
@@ -37,12 +36,9 @@ public class CustomObjectTag implements ObjectTag, Adjustable {
 
     @Fetchable("custom")
     public static CustomObjectTag valueOf(String string, TagContext context) {
-        Matcher m;
-
         ///////
         // Handle objects with properties through the object fetcher
-        m = ObjectFetcher.DESCRIBED_PATTERN.matcher(string);
-        if (m.matches()) {
+        if (ObjectFetcher.isDescribed(string)) {
             return ObjectFetcher.getObjectFrom(CustomObjectTag.class, string, context);
         }
 
@@ -76,8 +72,17 @@ public class CustomObjectTag implements ObjectTag, Adjustable {
     }
 
     public CustomScriptContainer container;
+
+    /**
+     * The object's values. Call invalidateIdentity() after changing these directly.
+     */
     public Map<String, ObjectTag> vars;
 
+    /**
+     * The cached identify() output. Only kept while every value is an ElementTag, as other values may change without this object knowing.
+     */
+    private String identity = null;
+
     public CustomObjectTag(CustomScriptContainer type, Map<String, ObjectTag> values) {
         container = type;
         vars = values;
@@ -92,11 +97,33 @@ public class CustomObjectTag implements ObjectTag, Adjustable {
 
     @Override
     public String identify() {
+        String result = identity;
+        if (result != null) {
+            return result;
+        }
         StringBuilder outp = new StringBuilder();
+        outp.append("custom@").append(container.getName()).append('[');
+        boolean cacheable = true;
         for (Map.Entry<String, ObjectTag> var : vars.entrySet()) {
-            outp.append(var.getKey() + "=" + var.getValue().toString().replace(';', (char) 0x2011) + ";");
+            ObjectTag value = var.getValue();
+            if (!(value instanceof ElementTag)) {
+                cacheable = false;
+            }
+            outp.append(var.getKey()).append('=').append(value.toString().replace(';', (char) 0x2011)).append(';');
         }
-        return "custom@" + container.getName() + "[" + (outp.length() > 0 ? outp.substring(0, outp.length() - 1) : "") + "]";
+        if (!vars.isEmpty()) {
+            outp.setLength(outp.length() - 1);
+        }
+        result = outp.append(']').toString();
+        if (cacheable) {
+            identity = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidateIdentity() {
+        identity = null;
     }
 
     @Override
@@ -160,6 +187,7 @@ public class CustomObjectTag implements ObjectTag, Adjustable {
     @Override
     public void adjust(Mechanism mechanism) {
         String name = CoreUtilities.toLowerCase(mechanism.getName());
+        invalidateIdentity();
         if (!mechanism.hasValue()) {
             vars.remove(name);
             return;
@@ -173,6 +201,8 @@ public class CustomObjectTag implements ObjectTag, Adjustable {
             CustomObjectTag co = CustomObjectTag.getFor(outcomes.getObject(0), null);
             container = co.container;
             vars = co.vars;
+            // The mechanism script may have identified the object before it changed
+            invalidateIdentity();
         }
         else {
             vars.put(name, value);
@@ -123,6 +123,32 @@ public class ElementTag implements ObjectTag {
 
     private final String element;
 
+    /**
+     * Marks fixedType as worked out, with no type found. ObjectTag itself is never a registered object type.
+     */
+    private static final Class<? extends ObjectTag> NO_FIXED_TYPE = ObjectTag.class;
+
+    /**
+     * The object type this element's text identifies, NO_FIXED_TYPE if none, or null if not yet worked out.
+     * As the text never changes, this only needs to be worked out once per element.
+     */
+    private volatile Class<? extends ObjectTag> fixedType = null;
+
+    /**
+     * Returns the object type this element's text identifies (see ObjectFetcher.pickObjectTypeFor), or null if none.
+     */
+    public Class<? extends ObjectTag> getFixedType() {
+        Class<? extends ObjectTag> type = fixedType;
+        if (type == null) {
+            type = ObjectFetcher.pickObjectTypeFor(element);
+            if (type == null) {
+                type = NO_FIXED_TYPE;
+            }
+            fixedType = type;
+        }
+        return type == NO_FIXED_TYPE ? null : type;
+    }
+
     public ElementTag(String string) {
         this.prefix = "element";
         if (string == null) {
@@ -5,6 +5,7 @@ import com.denizenscript.denizencore.objects.Fetchable;
 import com.denizenscript.denizencore.objects.ObjectTag;
 import com.denizenscript.denizencore.tags.TagRunnable;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
+import com.denizenscript.denizencore.scripts.ScriptEntryData;
 import com.denizenscript.denizencore.scripts.containers.core.ProcedureScriptContainer;
 import com.denizenscript.denizencore.scripts.queues.core.InstantQueue;
 import com.denizenscript.denizencore.tags.ObjectTagProcessor;
@@ -105,13 +106,186 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
 
     public void setObject(int index, ObjectTag obj) {
         objectForms.set(index, obj);
+        setCount++;
         super.set(index, obj.toString());
     }
 
+    @Override
+    public String set(int index, String value) {
+        // ArrayList.set doesn't count as a modification, so track it separately for the lookup indices
+        setCount++;
+        return super.set(index, value);
+    }
+
     public ObjectTag getObject(int id) {
         return objectForms.get(id);
     }
 
+    /////////////
+    //   Lookup indices
+    /////////
+
+    /**
+     * Counts calls to set(...), which (unlike other changes) don't update ArrayList's modCount.
+     */
+    private int setCount = 0;
+
+    private static class CaseIndex {
+
+        int modCount;
+
+        int setCount;
+
+        /**
+         * Maps case-folded items to the index of their first appearance in the list.
+         */
+        HashMap<String, Integer> firstIndices;
+
+        boolean hasDuplicates;
+    }
+
+    private static class MapIndex {
+
+        int modCount;
+
+        int setCount;
+
+        String split;
+
+        /**
+         * Maps case-folded keys to every value listed for that key, in list order.
+         */
+        HashMap<String, List<String>> values;
+
+        /**
+         * Maps case-folded values to the first key listed with that value.
+         */
+        HashMap<String, String> keys;
+    }
+
+    private static class CachedIdentity {
+
+        int modCount;
+
+        int setCount;
+
+        String identity;
+    }
+
+    private CaseIndex caseIndex;
+
+    private MapIndex mapIndex;
+
+    private CachedIdentity cachedIdentity;
+
+    /**
+     * Folds case the same way as String.equalsIgnoreCase, with a fast path for plain ASCII text.
+     * equalsIgnoreCase treats two chars as equal when their upper cases have the same lower case,
+     * so folding each char to exactly that makes two strings fold the same only if they are equal ignoring case.
+     */
+    public static String foldCase(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) > 127) {
+                char[] data = input.toCharArray();
+                for (int x = 0; x < data.length; x++) {
+                    data[x] = Character.toLowerCase(Character.toUpperCase(data[x]));
+                }
+                return new String(data);
+            }
+        }
+        return CoreUtilities.toLowerCase(input);
+    }
+
+    /**
+     * Returns a case-folded index of the list's items, built when first needed and rebuilt after the list changes.
+     */
+    private CaseIndex getCaseIndex() {
+        CaseIndex index = caseIndex;
+        if (index != null && index.modCount == modCount && index.setCount == setCount) {
+            return index;
+        }
+        index = new CaseIndex();
+        index.modCount = modCount;
+        index.setCount = setCount;
+        index.firstIndices = new HashMap<>(Math.max(16, size() * 2));
+        for (int i = 0; i < size(); i++) {
+            if (index.firstIndices.putIfAbsent(foldCase(get(i)), i) != null) {
+                index.hasDuplicates = true;
+            }
+        }
+        caseIndex = index;
+        return index;
+    }
+
+    /**
+     * Returns the index of the first item that matches the input ignoring case, or -1 if there is none.
+     */
+    public int indexOfIgnoreCase(String item) {
+        Integer index = getCaseIndex().firstIndices.get(foldCase(item));
+        return index == null ? -1 : index;
+    }
+
+    public boolean containsIgnoreCase(String item) {
+        return indexOfIgnoreCase(item) != -1;
+    }
+
+    /**
+     * Returns the indices of every item that matches the input ignoring case.
+     */
+    public List<Integer> allIndicesOfIgnoreCase(String item) {
+        CaseIndex index = getCaseIndex();
+        String folded = foldCase(item);
+        Integer first = index.firstIndices.get(folded);
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        if (!index.hasDuplicates) {
+            return Collections.singletonList(first);
+        }
+        List<Integer> result = new ArrayList<>();
+        result.add(first);
+        for (int i = first + 1; i < size(); i++) {
+            if (get(i).equalsIgnoreCase(item)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the list's items read as "key" + split + "value" pairs, indexed both ways. Items without the split symbol are skipped.
+     */
+    private MapIndex getMapIndex(String split) {
+        MapIndex index = mapIndex;
+        if (index != null && index.modCount == modCount && index.setCount == setCount && index.split.equals(split)) {
+            return index;
+        }
+        index = new MapIndex();
+        index.modCount = modCount;
+        index.setCount = setCount;
+        index.split = split;
+        index.values = new HashMap<>();
+        index.keys = new HashMap<>();
+        for (String item : this) {
+            int splitAt = item.indexOf(split);
+            if (splitAt == -1) {
+                continue;
+            }
+            String key = item.substring(0, splitAt);
+            String value = item.substring(splitAt + split.length());
+            String foldedKey = foldCase(key);
+            List<String> values = index.values.get(foldedKey);
+            if (values == null) {
+                values = new ArrayList<>(1);
+                index.values.put(foldedKey, values);
+            }
+            values.add(value);
+            index.keys.putIfAbsent(foldCase(value), key);
+        }
+        mapIndex = index;
+        return index;
+    }
+
     public final static char internal_escape_char = (char) 0x05;
     public final static String internal_escape = String.valueOf(internal_escape_char);
 
@@ -448,12 +622,26 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
         if (isEmpty()) {
             return "li@";
         }
+        CachedIdentity cached = cachedIdentity;
+        if (cached != null && cached.modCount == modCount && cached.setCount == setCount) {
+            return cached.identity;
+        }
         StringBuilder output = new StringBuilder();
         output.append("li@");
         for (String item : this) {
             output.append(item).append('|');
         }
-        return output.substring(0, output.length() - 1);
+        cached = new CachedIdentity();
+        cached.modCount = modCount;
+        cached.setCount = setCount;
+        cached.identity = output.substring(0, output.length() - 1);
+        cachedIdentity = cached;
+        return cached.identity;
+    }
+
+    @Override
+    public void invalidateIdentity() {
+        cachedIdentity = null;
     }
 
 
@@ -473,6 +661,131 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 dScriptArg.length() - spacer.length());
     }
 
+    /**
+     * An item to be sorted, paired with its sort key, so that the key only needs to be worked out once per item, not once per comparison.
+     */
+    private static class SortEntry<T> {
+
+        public final ObjectTag item;
+
+        public final T key;
+
+        public SortEntry(ObjectTag item, T key) {
+            this.item = item;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Returns an Attribute for a sub-tag given as the context of a list tag (like the 'to_uppercase' of '.parse[to_uppercase]'),
+     * to be run against each item in turn with runSubTag.
+     */
+    private static Attribute compileSubTag(String tag, Attribute attribute) {
+        return new Attribute(tag, attribute.getScriptEntry(), attribute.context);
+    }
+
+    private static ObjectTag runSubTag(ObjectTag item, Attribute subTag) {
+        return CoreUtilities.autoAttribTyped(item, subTag.reset());
+    }
+
+    private static <T> ListTag sortByKeys(List<SortEntry<T>> entries, final Comparator<T> keyComparator) {
+        Collections.sort(entries, new Comparator<SortEntry<T>>() {
+            @Override
+            public int compare(SortEntry<T> o1, SortEntry<T> o2) {
+                return keyComparator.compare(o1.key, o2.key);
+            }
+        });
+        ListTag result = new ListTag();
+        for (SortEntry<T> entry : entries) {
+            result.addObject(entry.item);
+        }
+        return result;
+    }
+
+    /**
+     * Compares list items by running a procedure script with the two items as definitions.
+     * Everything that doesn't depend on the two items (the definition names, the entry data, the queue itself) is prepared once and reused.
+     */
+    private static class ProcedureComparator implements Comparator<String> {
+
+        public final ProcedureScriptContainer script;
+
+        public final ScriptEntryData entryData;
+
+        public final ListTag context;
+
+        public final String[] definitionNames;
+
+        /**
+         * The procedure's entries, built once per sort. Each comparison runs its own copies, as running an entry changes it.
+         */
+        public final List<ScriptEntry> entries;
+
+        public InstantQueue queue = new InstantQueue("LISTTAG_SORT");
+
+        public ProcedureComparator(ProcedureScriptContainer script, ScriptEntry entry, ListTag context) {
+            this.script = script;
+            this.entryData = entry == null ? DenizenCore.getImplementation().getEmptyScriptEntryData() : entry.entryData;
+            this.context = context;
+            List<ScriptEntry> built = script.getBaseEntries(entryData.clone());
+            this.entries = built == null ? new ArrayList<ScriptEntry>() : built;
+            String names = script.getString("definitions");
+            String[] split = names == null ? new String[0] : names.split("\\|");
+            for (int i = 0; i < split.length; i++) {
+                split[i] = split[i].trim();
+            }
+            definitionNames = split;
+        }
+
+        private void define(ScriptEntry debugEntry, int x, String value) {
+            String name = definitionNames.length >= x ? definitionNames[x - 1] : String.valueOf(x);
+            queue.addDefinition(name, value);
+            Debug.echoDebug(debugEntry, "Adding definition %" + name + "% as " + value);
+        }
+
+        /**
+         * Copies the prepared entries for one run. The copies share each entry's parsed internal data, so this only copies
+         * the small per-run state (arguments, objects, entry data), rather than rebuilding the script.
+         */
+        private List<ScriptEntry> copyEntries() {
+            List<ScriptEntry> copy = new ArrayList<>(entries.size());
+            try {
+                for (ScriptEntry entry : entries) {
+                    copy.add(entry.clone());
+                }
+            }
+            catch (CloneNotSupportedException ex) {
+                Debug.echoError(ex); // This should never happen
+            }
+            return copy;
+        }
+
+        @Override
+        public int compare(String o1, String o2) {
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            if (!queue.reset()) {
+                // The last run is still going (it must have waited), so it can't be reused
+                queue = new InstantQueue("LISTTAG_SORT");
+            }
+            List<ScriptEntry> entries = copyEntries();
+            queue.addEntries(entries);
+            define(entries.get(0), 1, o1);
+            define(entries.get(0), 2, o2);
+            int x = 3;
+            for (String value : context) {
+                define(entries.get(0), x++, value);
+            }
+            queue.start();
+            int res = 0;
+            if (queue.determinations != null && queue.determinations.size() > 0) {
+                res = new ElementTag(queue.determinations.get(0)).asInt();
+            }
+            return Integer.compare(res, 0);
+        }
+    }
+
     public static void registerTags() {
 
         // <--[tag]
@@ -654,13 +967,11 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 }
 
                 ListTag result = new ListTag();
-
+                MapIndex map = object.getMapIndex(split);
                 for (String key : input) {
-                    for (String item : object) {
-                        String[] strings = item.split(Pattern.quote(split), 2);
-                        if (strings.length > 1 && strings[0].equalsIgnoreCase(key)) {
-                            result.add(strings[1]);
-                        }
+                    List<String> values = map.values.get(foldCase(key));
+                    if (values != null) {
+                        result.addAll(values);
                     }
                 }
                 if (input.size() == 1 && result.size() == 1) {
@@ -703,13 +1014,11 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     }
                     attribute.fulfill(1);
                 }
-                for (String item : object) {
-                    String[] strings = item.split(Pattern.quote(split), 2);
-                    if (strings.length > 1 && strings[1].equalsIgnoreCase(input)) {
-                        return new ElementTag(strings[0]);
-                    }
+                String key = object.getMapIndex(split).keys.get(foldCase(input));
+                if (key == null) {
+                    return null;
                 }
-                return null;
+                return new ElementTag(key);
             }
         });
 
@@ -855,17 +1164,13 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     return null;
                 }
                 ListTag exclusions = getListFor(attribute.getContextObject(1));
-                // Create a new ListTag that will contain the exclusions
-                ListTag copy = new ListTag(object);
-                // Iterate through
-                for (String exclusion : exclusions) {
-                    for (int i = 0; i < copy.size(); i++) {
-                        if (copy.get(i).equalsIgnoreCase(exclusion)) {
-                            copy.remove(i--);
-                        }
+                // Create a new ListTag that will contain everything not excluded
+                ListTag copy = new ListTag();
+                for (int i = 0; i < object.size(); i++) {
+                    if (!exclusions.containsIgnoreCase(object.get(i))) {
+                        copy.addObject(object.objectForms.get(i));
                     }
                 }
-                // Return the modified list
                 return copy;
             }
         });
@@ -1007,15 +1312,8 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 ListTag list = new ListTag();
                 int size = obj.size();
                 for (int i = 0; i < size; i++) {
-                    String entry = obj.get(i);
-                    boolean duplicate = false;
-                    for (int x = 0; x < i; x++) {
-                        if (obj.get(x).equalsIgnoreCase(entry)) {
-                            duplicate = true;
-                            break;
-                        }
-                    }
-                    if (!duplicate) {
+                    // Only the first of each set of duplicates is its own first index
+                    if (obj.indexOfIgnoreCase(obj.get(i)) == i) {
                         list.addObject(obj.objectForms.get(i));
                     }
                 }
@@ -1144,12 +1442,9 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     Debug.echoError("The tag ListTag.find_all[...] must have a value.");
                     return null;
                 }
-                ListTag list = object;
                 ListTag positions = new ListTag();
-                for (int i = 0; i < list.size(); i++) {
-                    if (list.get(i).equalsIgnoreCase(attribute.getContext(1))) {
-                        positions.add(String.valueOf(i + 1));
-                    }
+                for (int index : object.allIndicesOfIgnoreCase(attribute.getContext(1))) {
+                    positions.add(String.valueOf(index + 1));
                 }
                 return positions;
             }
@@ -1198,20 +1493,8 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     Debug.echoError("The tag ListTag.find[...] must have a value.");
                     return null;
                 }
-                ListTag list = object;
-                for (int i = 0; i < list.size(); i++) {
-                    if (list.get(i).equalsIgnoreCase(attribute.getContext(1))) {
-                        return new ElementTag(i + 1);
-                    }
-                }
-                // TODO: This should be find_partial or something
-            /*
-            for (int i = 0; i < size(); i++) {
-                if (get(i).toUpperCase().contains(attribute.getContext(1).toUpperCase()))
-                    return new Element(i + 1);
-            }
-            */
-                return new ElementTag(-1);
+                int index = object.indexOfIgnoreCase(attribute.getContext(1));
+                return new ElementTag(index == -1 ? -1 : index + 1);
             }
         });
 
@@ -1456,23 +1739,24 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
         registerTag("sort_by_value", new TagRunnable.ObjectForm<ListTag>() {
             @Override
             public ObjectTag run(final Attribute attribute, final ListTag object) {
-                ListTag newlist = new ListTag(object);
                 final NaturalOrderComparator comparator = new NaturalOrderComparator();
                 try {
-                    Collections.sort(newlist.objectForms, new Comparator<ObjectTag>() {
+                    List<SortEntry<ObjectTag>> entries = new ArrayList<>(object.objectForms.size());
+                    Attribute subTag = compileSubTag(attribute.getContext(1), attribute);
+                    for (ObjectTag item : object.objectForms) {
+                        entries.add(new SortEntry<>(item, runSubTag(item, subTag)));
+                    }
+                    return sortByKeys(entries, new Comparator<ObjectTag>() {
                         @Override
                         public int compare(ObjectTag o1, ObjectTag o2) {
-                            ObjectTag or1 = CoreUtilities.autoAttribTyped(o1, new Attribute(attribute.getContext(1), attribute.getScriptEntry(), attribute.context));
-                            ObjectTag or2 = CoreUtilities.autoAttribTyped(o2, new Attribute(attribute.getContext(1), attribute.getScriptEntry(), attribute.context));
-                            return comparator.compare(or1, or2);
+                            return comparator.compare(o1, o2);
                         }
                     });
-                    return new ListTag(newlist.objectForms);
                 }
                 catch (Exception ex) {
                     Debug.echoError(ex);
                 }
-                return newlist;
+                return new ListTag(object);
             }
         });
 
@@ -1487,15 +1771,15 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
         registerTag("sort_by_number", new TagRunnable.ObjectForm<ListTag>() {
             @Override
             public ObjectTag run(final Attribute attribute, final ListTag object) {
-                ListTag newlist = new ListTag(object);
                 try {
-                    Collections.sort(newlist.objectForms, new Comparator<ObjectTag>() {
+                    List<SortEntry<Double>> entries = new ArrayList<>(object.objectForms.size());
+                    Attribute subTag = compileSubTag(attribute.getContext(1), attribute);
+                    for (ObjectTag item : object.objectForms) {
+                        entries.add(new SortEntry<>(item, ArgumentHelper.getDoubleFrom(runSubTag(item, subTag).toString())));
+                    }
+                    return sortByKeys(entries, new Comparator<Double>() {
                         @Override
-                        public int compare(ObjectTag o1, ObjectTag o2) {
-                            ObjectTag or1 = CoreUtilities.autoAttribTyped(o1, new Attribute(attribute.getContext(1), attribute.getScriptEntry(), attribute.context));
-                            ObjectTag or2 = CoreUtilities.autoAttribTyped(o2, new Attribute(attribute.getContext(1), attribute.getScriptEntry(), attribute.context));
-                            double r1 = ArgumentHelper.getDoubleFrom(or1.toString());
-                            double r2 = ArgumentHelper.getDoubleFrom(or2.toString());
+                        public int compare(Double r1, Double r2) {
                             double value = r1 - r2;
                             if (value == 0) {
                                 return 0;
@@ -1508,12 +1792,11 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                             }
                         }
                     });
-                    return new ListTag(newlist.objectForms);
                 }
                 catch (Exception ex) {
                     Debug.echoError(ex);
                 }
-                return newlist;
+                return new ListTag(object);
             }
         });
 
@@ -1552,52 +1835,9 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     context = getListFor(attribute.getContextObject(2));
                     attribute.fulfill(1);
                 }
-                final ListTag context_send = context;
                 List<String> list = new ArrayList<>(obj);
                 try {
-                    Collections.sort(list, new Comparator<String>() {
-                        @Override
-                        public int compare(String o1, String o2) {
-                            List<ScriptEntry> entries = script.getBaseEntries(entry == null ?
-                                    DenizenCore.getImplementation().getEmptyScriptEntryData() : entry.entryData.clone());
-                            if (entries.isEmpty()) {
-                                return 0;
-                            }
-                            InstantQueue queue = new InstantQueue("LISTTAG_SORT");
-                            queue.addEntries(entries);
-                            int x = 1;
-                            ListTag definitions = new ListTag();
-                            definitions.add(o1);
-                            definitions.add(o2);
-                            definitions.addAll(context_send);
-                            String[] definition_names = null;
-                            try {
-                                definition_names = script.getString("definitions").split("\\|");
-                            }
-                            catch (Exception e) { /* IGNORE */ }
-                            for (String definition : definitions) {
-                                String name = definition_names != null && definition_names.length >= x ?
-                                        definition_names[x - 1].trim() : String.valueOf(x);
-                                queue.addDefinition(name, definition);
-                                Debug.echoDebug(entries.get(0), "Adding definition %" + name + "% as " + definition);
-                                x++;
-                            }
-                            queue.start();
-                            int res = 0;
-                            if (queue.determinations != null && queue.determinations.size() > 0) {
-                                res = new ElementTag(queue.determinations.get(0)).asInt();
-                            }
-                            if (res < 0) {
-                                return -1;
-                            }
-                            else if (res > 0) {
-                                return 1;
-                            }
-                            else {
-                                return 0;
-                            }
-                        }
-                    });
+                    Collections.sort(list, new ProcedureComparator(script, entry, context));
                 }
                 catch (Exception e) {
                     Debug.echoError("list.sort[...] tag failed - procedure returned unreasonable response - internal error: " + e.getMessage());
@@ -1623,11 +1863,10 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 }
                 ListTag newlist = new ListTag();
                 try {
+                    Attribute subTag = compileSubTag(tag, attribute);
+                    subTag.setHadAlternative(true);
                     for (ObjectTag obj : object.objectForms) {
-                        Attribute tempAttrib = new Attribute(tag,
-                                attribute.getScriptEntry(), attribute.context);
-                        tempAttrib.setHadAlternative(true);
-                        ObjectTag objs = CoreUtilities.autoAttribTyped(obj, tempAttrib);
+                        ObjectTag objs = runSubTag(obj, subTag);
                         if ((objs == null) ? defaultValue : CoreUtilities.toLowerCase(objs.toString()).equals("true")) {
                             newlist.addObject(obj);
                         }
@@ -1674,11 +1913,10 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                     }
                 }
                 try {
+                    Attribute subTag = compileSubTag(tag, attribute);
+                    subTag.setHadAlternative(attribute.hasAlternative() || fallback);
                     for (ObjectTag obj : object.objectForms) {
-                        Attribute tempAttrib = new Attribute(tag,
-                                attribute.getScriptEntry(), attribute.context);
-                        tempAttrib.setHadAlternative(attribute.hasAlternative() || fallback);
-                        ObjectTag objs = CoreUtilities.autoAttribTyped(obj, tempAttrib);
+                        ObjectTag objs = runSubTag(obj, subTag);
                         if (objs == null) {
                             objs = new ElementTag(defaultValue);
                         }
@@ -1851,14 +2089,10 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 }
                 ListTag list = getListFor(attribute.getContextObject(1));
                 boolean state = false;
-
-                full_set:
-                for (String element : object) {
-                    for (String sub_element : list) {
-                        if (element.equalsIgnoreCase(sub_element)) {
-                            state = true;
-                            break full_set;
-                        }
+                for (String sub_element : list) {
+                    if (object.containsIgnoreCase(sub_element)) {
+                        state = true;
+                        break;
                     }
                 }
 
@@ -1909,11 +2143,8 @@ public class ListTag extends ArrayList<String> implements ObjectTag {
                 int gotten = 0;
 
                 for (String check : needed) {
-                    for (String element : object) {
-                        if (element.equalsIgnoreCase(check)) {
-                            gotten++;
-                            break;
-                        }
+                    if (object.containsIgnoreCase(check)) {
+                        gotten++;
                     }
                 }
 
@@ -1,5 +1,6 @@
 package com.denizenscript.denizencore.objects.properties;
 
+import com.denizenscript.denizencore.tags.TagManager;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.objects.ObjectTag;
 
@@ -15,6 +16,18 @@ public class PropertyParser {
         Property get(ObjectTag obj);
     }
 
+    /**
+     * Objects whose property values only change through mechanisms may implement this to keep their properties string
+     * (see getPropertiesString) between identify() calls. The cached string is cleared whenever a mechanism is applied to the object.
+     * Objects whose properties can change any other way must call invalidatePropertiesString themselves when that happens.
+     */
+    public interface CachesPropertiesString {
+
+        String getCachedPropertiesString();
+
+        void setCachedPropertiesString(String properties);
+    }
+
     public static class ClassPropertiesInfo {
         public List<PropertyGetter> allProperties = new ArrayList<>();
 
@@ -34,6 +47,7 @@ public class PropertyParser {
     public static Map<Class<? extends ObjectTag>, ClassPropertiesInfo> propertiesByClass = new HashMap<>();
 
     public static void registerPropertyGetter(PropertyGetter getter, Class<? extends ObjectTag> object, String[] tags, String[] mechs, Class property) {
+        TagManager.dispatchVersion++;
         ClassPropertiesInfo propInfo = propertiesByClass.get(object);
         if (propInfo == null) {
             propInfo = new ClassPropertiesInfo();
@@ -97,7 +111,26 @@ public class PropertyParser {
         }
     }
 
+    public static void invalidatePropertiesString(ObjectTag object) {
+        if (object instanceof CachesPropertiesString) {
+            ((CachesPropertiesString) object).setCachedPropertiesString(null);
+        }
+    }
+
     public static String getPropertiesString(ObjectTag object) {
+        if (object instanceof CachesPropertiesString) {
+            CachesPropertiesString cacheable = (CachesPropertiesString) object;
+            String cached = cacheable.getCachedPropertiesString();
+            if (cached == null) {
+                cached = buildPropertiesString(object);
+                cacheable.setCachedPropertiesString(cached);
+            }
+            return cached;
+        }
+        return buildPropertiesString(object);
+    }
+
+    private static String buildPropertiesString(ObjectTag object) {
         ClassPropertiesInfo properties = propertiesByClass.get(object.getObjectTagClass());
         if (properties == null) {
             return "";
@@ -123,6 +156,22 @@ public class PropertyParser {
 
     public static List<Property> empty = new ArrayList<>();
 
+    /**
+     * Returns whether any property registered for the object type could handle the given tag.
+     * If not, no object of that type can have a property tag by that name.
+     */
+    public static boolean mayHaveTagProperty(Class<? extends ObjectTag> objectClass, String attribLow) {
+        ClassPropertiesInfo properties = propertiesByClass.get(objectClass);
+        if (properties == null) {
+            return false;
+        }
+        return !properties.propertiesAnyTags.isEmpty() || properties.propertiesByTag.containsKey(attribLow);
+    }
+
+    /**
+     * Returns the properties of the object that may handle the given tag:
+     * just the property registered for that tag if there is one, or otherwise only those properties that don't list their tags.
+     */
     public static List<Property> getProperties(ObjectTag object, String attribLow) {
         ClassPropertiesInfo properties = propertiesByClass.get(object.getObjectTagClass());
         if (properties == null) {
@@ -134,11 +183,20 @@ public class PropertyParser {
             if (prop == null) {
                 return empty;
             }
-            return Collections.singletonList(getter.get(object));
+            return Collections.singletonList(prop);
         }
-        else {
-            return getProperties(object);
+        // Properties that list their tags can't handle this one, so there's nothing else to check
+        if (properties.propertiesAnyTags.isEmpty()) {
+            return empty;
         }
+        List<Property> props = new ArrayList<>(properties.propertiesAnyTags.size());
+        for (PropertyGetter listGetter : properties.propertiesAnyTags) {
+            Property prop = listGetter.get(object);
+            if (prop != null) {
+                props.add(prop);
+            }
+        }
+        return props;
     }
 
     public static List<Property> getProperties(ObjectTag object) {
@@ -59,6 +59,14 @@ public class ScriptEntry implements Cloneable, Debuggable {
         public String originalLine = null;
 
         public int lineNumber;
+
+        /**
+         * The entry's position within the ScriptEntrySet it was built into, and that set's MARK positions (see ScriptEntrySet.marks).
+         * The mark table is null for entries that aren't part of a set (such as the insides of braced commands).
+         */
+        public int setIndex = -1;
+
+        public Map<String, int[]> setMarks = null;
     }
 
     public static class InternalArgument {
@@ -327,7 +335,7 @@ public class ScriptEntry implements Cloneable, Debuggable {
                 broken = true;
             }
             if (internal.actualCommand instanceof BracedCommand) {
-                BracedCommand.getBracedCommands(this);
+                BracedCommand.getBracedCommands(this, false);
             }
         }
     }
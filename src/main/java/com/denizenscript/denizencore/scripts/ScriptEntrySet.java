@@ -1,16 +1,53 @@
 package com.denizenscript.denizencore.scripts;
 
+import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ScriptEntrySet {
 
     public List<ScriptEntry> entries;
 
+    /**
+     * A map of lowercased MARK names to the (ascending) indices of every MARK command with that name in the set.
+     * Used by GOTO to jump without searching the queue.
+     */
+    public Map<String, int[]> marks;
+
     public ScriptEntrySet(List<ScriptEntry> baseEntries) {
         entries = baseEntries;
+        marks = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ScriptEntry entry = entries.get(i);
+            if (entry.internal == null) {
+                continue;
+            }
+            entry.internal.setIndex = i;
+            entry.internal.setMarks = marks;
+            List<String> args = entry.getOriginalArguments();
+            if (entry.getCommandName() != null && entry.getCommandName().equalsIgnoreCase("mark") && args != null && args.size() > 0) {
+                String name = CoreUtilities.toLowerCase(args.get(0));
+                int[] known = marks.get(name);
+                if (known == null) {
+                    marks.put(name, new int[] {i});
+                }
+                else {
+                    int[] updated = Arrays.copyOf(known, known.length + 1);
+                    updated[known.length] = i;
+                    marks.put(name, updated);
+                }
+            }
+        }
+    }
+
+    private ScriptEntrySet(List<ScriptEntry> baseEntries, Map<String, int[]> marks) {
+        entries = baseEntries;
+        this.marks = marks;
     }
 
     public ScriptEntrySet duplicate() {
@@ -23,6 +60,7 @@ public class ScriptEntrySet {
         catch (CloneNotSupportedException e) {
             Debug.echoError(e); // This should never happen
         }
-        return new ScriptEntrySet(newEntries);
+        // Clones share their 'internal' data, so the indices stored there remain valid
+        return new ScriptEntrySet(newEntries, marks);
     }
 }
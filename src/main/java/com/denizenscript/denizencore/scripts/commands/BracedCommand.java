@@ -5,6 +5,7 @@ import com.denizenscript.denizencore.scripts.ScriptBuilder;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.TreeMap;
 
@@ -41,6 +42,72 @@ public abstract class BracedCommand extends AbstractCommand {
         return getBracedCommands(scriptEntry, true);
     }
 
+    /**
+     * Gets a fresh copy of just one of the braced sections of this ScriptEntry, ready to be injected into a queue.
+     * Unlike getBracedCommands, only the entries of the requested section are cloned.
+     *
+     * @param scriptEntry The ScriptEntry to get the braced section from.
+     * @param index The index of the section (0 for the first or only section).
+     * @return The section, or null if there is no such section.
+     */
+    public static BracedData getBracedSection(ScriptEntry scriptEntry, int index) {
+        List<BracedData> sections = getBracedCommands(scriptEntry, false);
+        if (sections == null || index >= sections.size()) {
+            return null;
+        }
+        return duplicateSection(scriptEntry, sections.get(index));
+    }
+
+    /**
+     * Copies a section from an entry's cached (shared, unmodifiable) braced set, cloning each entry so the copy can be run by a queue.
+     *
+     * @param scriptEntry The ScriptEntry running the section, which the copied entries take their data from.
+     * @param bd The cached section.
+     * @return A modifiable copy of the section.
+     */
+    public static BracedData duplicateSection(ScriptEntry scriptEntry, BracedData bd) {
+        return duplicateSection(scriptEntry, scriptEntry, bd);
+    }
+
+    /**
+     * Copies a section that belongs to a different entry than the one running it (such as the body of a CHOOSE command's case).
+     *
+     * @param scriptEntry The ScriptEntry running the section, which the copied entries take their data from.
+     * @param owner The entry the section was read from, whose arguments the section's args refer to.
+     * @param bd The cached section.
+     * @return A modifiable copy of the section.
+     */
+    public static BracedData duplicateSection(ScriptEntry scriptEntry, ScriptEntry owner, BracedData bd) {
+        BracedData newbd = new BracedData();
+        newbd.key = bd.key;
+        newbd.value = new ArrayList<>(bd.value.size());
+        newbd.needPatch = bd.needPatch;
+        try {
+            for (ScriptEntry sEntry : bd.value) {
+                ScriptEntry newEntry = sEntry.clone();
+                newEntry.entryData.transferDataFrom(scriptEntry.entryData);
+                newEntry.entryData.scriptEntry = newEntry;
+                newbd.value.add(newEntry);
+            }
+        }
+        catch (Exception e) {
+            Debug.echoError(scriptEntry.getResidingQueue(), e);
+        }
+        if (Debug.verbose) {
+            Debug.echoDebug(scriptEntry, "Wrangling braced command args[" + bd.needPatch + "]: " + bd.key);
+        }
+        if (bd.needPatch) {
+            newbd.args = new ArrayList<>(bd.args.size());
+            for (int x = bd.aStart; x <= bd.aEnd; x++) {
+                newbd.args.add(CommandExecuter.parseDefsRaw(scriptEntry, owner.args.get(x)));
+            }
+        }
+        else {
+            newbd.args = bd.args;
+        }
+        return newbd;
+    }
+
     public static List<BracedData> getBracedCommands(ScriptEntry scriptEntry, boolean duplicate) {
         if (scriptEntry == null) {
             return null;
@@ -56,37 +123,9 @@ public abstract class BracedCommand extends AbstractCommand {
             if (!duplicate) {
                 return entryBracedSet;
             }
-            List<BracedData> res = new ArrayList<>(entryBracedSet);
-            try {
-                for (int i = 0; i < res.size(); i++) {
-                    BracedData newbd = new BracedData();
-                    BracedData bd = res.get(i);
-                    res.set(i, newbd);
-                    newbd.key = bd.key;
-                    newbd.value = new ArrayList<>(bd.value.size());
-                    newbd.needPatch = bd.needPatch;
-                    for (ScriptEntry sEntry : bd.value) {
-                        ScriptEntry newEntry = sEntry.clone();
-                        newEntry.entryData.transferDataFrom(scriptEntry.entryData);
-                        newEntry.entryData.scriptEntry = newEntry;
-                        newbd.value.add(newEntry);
-                    }
-                    if (Debug.verbose) {
-                        Debug.echoDebug(scriptEntry, "Wrangling braced command args[" + bd.needPatch + "]: " + bd.key);
-                    }
-                    if (bd.needPatch) {
-                        newbd.args = new ArrayList<>(bd.args.size());
-                        for (int x = bd.aStart; x <= bd.aEnd; x++) {
-                            newbd.args.add(CommandExecuter.parseDefsRaw(scriptEntry, scriptEntry.args.get(x)));
-                        }
-                    }
-                    else {
-                        newbd.args = bd.args;
-                    }
-                }
-            }
-            catch (Exception e) {
-                Debug.echoError(scriptEntry.getResidingQueue(), e);
+            List<BracedData> res = new ArrayList<>(entryBracedSet.size());
+            for (BracedData bd : entryBracedSet) {
+                res.add(duplicateSection(scriptEntry, bd));
             }
             return res;
         }
@@ -100,8 +139,8 @@ public abstract class BracedCommand extends AbstractCommand {
             bd.args = new ArrayList<>();
             bd.value = entries;
             bracedSections.add(bd);
-            scriptEntry.setBracedSet(bracedSections);
-            return getBracedCommands(scriptEntry);
+            setBracedTemplate(scriptEntry, bracedSections);
+            return getBracedCommands(scriptEntry, duplicate);
         }
 
         // We need a place to store the commands being built at...
@@ -284,8 +323,19 @@ public abstract class BracedCommand extends AbstractCommand {
             }
         }
 
-        scriptEntry.setBracedSet(bracedSections);
-        return getBracedCommands(scriptEntry);
+        setBracedTemplate(scriptEntry, bracedSections);
+        return getBracedCommands(scriptEntry, duplicate);
 
     }
+
+    /**
+     * Caches the parsed braced sections on the entry (which is shared by all clones of it).
+     * The cached sections are made unmodifiable, as they are only ever copied from (see duplicateSection), never run directly.
+     */
+    private static void setBracedTemplate(ScriptEntry scriptEntry, List<BracedData> bracedSections) {
+        for (BracedData bd : bracedSections) {
+            bd.value = Collections.unmodifiableList(bd.value);
+        }
+        scriptEntry.setBracedSet(Collections.unmodifiableList(bracedSections));
+    }
 }
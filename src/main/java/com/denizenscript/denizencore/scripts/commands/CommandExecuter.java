@@ -5,8 +5,8 @@ import com.denizenscript.denizencore.objects.Argument;
 import com.denizenscript.denizencore.utilities.Deprecations;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.DenizenCore;
-import com.denizenscript.denizencore.objects.ArgumentHelper;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
+import com.denizenscript.denizencore.scripts.queues.ExecutionContext;
 import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.tags.TagManager;
 
@@ -88,7 +88,12 @@ public class CommandExecuter {
         return genned;
     }
 
-    public static ScriptQueue currentQueue;
+    /**
+     * Returns the queue whose command is currently executing on this thread, if any.
+     */
+    public static ScriptQueue getCurrentQueue() {
+        return ExecutionContext.current().currentQueue;
+    }
 
     public boolean execute(ScriptEntry scriptEntry) {
         if (scriptEntry.dbCallShouldDebug()) {
@@ -124,7 +129,8 @@ public class CommandExecuter {
             Debug.echoDebug(scriptEntry, Debug.DebugElement.Footer);
             return false;
         }
-        currentQueue = scriptEntry.getResidingQueue();
+        ExecutionContext context = ExecutionContext.current();
+        context.currentQueue = scriptEntry.getResidingQueue();
         String saveName = null;
         try {
             scriptEntry.generateAHArgs();
@@ -151,8 +157,8 @@ public class CommandExecuter {
                         genned ? scriptEntry.args_cur : scriptEntry.internal.args_ref, scriptEntry.aHArgs, false,
                         DenizenCore.getImplementation().getTagContextFor(scriptEntry, false), scriptEntry.internal.processArgs);
                 // TODO: Fix this weird interpreter efficiency hack (remove string dependence)
-                ArgumentHelper.specialInterpretTrickStrings = scriptEntry.args;
-                ArgumentHelper.specialInterpretTrickObjects = scriptEntry.aHArgs;
+                context.specialInterpretTrickStrings = scriptEntry.args;
+                context.specialInterpretTrickObjects = scriptEntry.aHArgs;
             }
             command.parseArgs(scriptEntry);
         }
@@ -166,7 +172,7 @@ public class CommandExecuter {
             Debug.log("(Attempted: " + scriptEntry.toString() + ")");
             Debug.echoDebug(scriptEntry, Debug.DebugElement.Footer);
             scriptEntry.setFinished(true);
-            currentQueue = null;
+            context.currentQueue = null;
             return false;
         }
         catch (Exception e) {
@@ -175,7 +181,7 @@ public class CommandExecuter {
             Debug.log("(Attempted: " + scriptEntry.toString() + ")");
             Debug.echoDebug(scriptEntry, Debug.DebugElement.Footer);
             scriptEntry.setFinished(true);
-            currentQueue = null;
+            context.currentQueue = null;
             return false;
         }
         try {
@@ -183,7 +189,7 @@ public class CommandExecuter {
             if (saveName != null) {
                 scriptEntry.getResidingQueue().holdScriptEntry(saveName, scriptEntry);
             }
-            currentQueue = null;
+            context.currentQueue = null;
             return true;
         }
         catch (Exception e) {
@@ -192,7 +198,7 @@ public class CommandExecuter {
             Debug.log("(Attempted: " + scriptEntry.toString() + ")");
             Debug.echoDebug(scriptEntry, Debug.DebugElement.Footer);
             scriptEntry.setFinished(true);
-            currentQueue = null;
+            context.currentQueue = null;
             return false;
         }
     }
@@ -96,7 +96,7 @@ public abstract class CommandRegistry {
         registerCoreMember(ElseCommand.class, "ELSE", "else (if <comparison logic>)", 0);
         registerCoreMember(EventCommand.class, "EVENT", "event [<event name>|...] (context:<name>|<object>|...)", 1);
         registerCoreMember(FileCopyCommand.class, "FILECOPY", "filecopy [origin:<origin>] [destination:<destination>] (overwrite)", 2);
-        registerCoreMember(ForeachCommand.class, "FOREACH", "foreach [stop/next/<object>|...] (as:<name>) [<commands>]", 1);
+        registerCoreMember(ForeachCommand.class, "FOREACH", "foreach [stop/next/<object>|...] (as:<name>) (key:<name>) [<commands>]", 1);
         registerCoreMember(GotoCommand.class, "GOTO", "goto [<name>]", 1);
         registerCoreMember(IfCommand.class, "IF", "if [<value>] (!)(<operator> <value>) (&&/|| ...) [<commands>] (else <commands>)", 1);
         registerCoreMember(InjectCommand.class, "INJECT", "inject (locally) [<script>] (path:<name>) (instantly)", 1);
@@ -104,15 +104,15 @@ public abstract class CommandRegistry {
         registerCoreMember(MarkCommand.class, "MARK", "mark [<name>]", 1);
         registerCoreMember(QueueCommand.class, "QUEUE", "queue (<queue>) [clear/stop/pause/resume/delay:<#>]", 1);
         registerCoreMember(RandomCommand.class, "RANDOM", "random [<#>/<commands>]", 0);
-        registerCoreMember(RateLimitCommand.class, "RATELIMIT", "ratelimit [<object>] [<duration>]", 2);
+        registerCoreMember(RateLimitCommand.class, "RATELIMIT", "ratelimit [<object>] [<duration>] (burst:<#>)", 2);
         registerCoreMember(ReloadCommand.class, "RELOAD", "reload", 0);
         registerCoreMember(RepeatCommand.class, "REPEAT", "repeat [stop/next/<amount>] [<commands>] (as:<name>)", 1);
-        registerCoreMember(RunCommand.class, "RUN", "run (locally) [<script>] (path:<name>) (def:<element>|...) (id:<name>) (instantly) (speed:<value>) (delay:<value>)", 1);
-        registerCoreMember(SQLCommand.class, "SQL", "sql [id:<ID>] [disconnect/connect:<server> (username:<username>) (password:<password>) (ssl:true/{false})/query:<query>/update:<update>]", 2);
+        registerCoreMember(RunCommand.class, "RUN", "run (locally) [<script>] (path:<name>) (def:<element>|...) (def.<name>:<value>) (id:<name>) (instantly) (speed:<value>) (delay:<value>)", 1);
+        registerCoreMember(SQLCommand.class, "SQL", "sql [id:<ID>] [disconnect/connect:<server> (username:<username>) (password:<password>) (ssl:true/{false}) (pool_size:<#>)/query:<query>/update:<update>/batch:<update>|...] (parameters:<list>) (fetch_size:<#>) (page_size:<#> page_script:<script>)", 2);
         registerCoreMember(StopCommand.class, "STOP", "stop", 0);
         registerCoreMember(SyncCommand.class, "SYNC", "sync [<commands>]", 0);
         registerCoreMember(WaitCommand.class, "WAIT", "wait (<duration>) (queue:<name>)", 0);
-        registerCoreMember(WaitUntilCommand.class, "WAITUNTIL", "waituntil (rate:<duration>) [<comparisons>]", 1);
+        registerCoreMember(WaitUntilCommand.class, "WAITUNTIL", "waituntil (rate:<duration>) (wake_on:<event>|...) [<comparisons>]", 1);
         registerCoreMember(WebGetCommand.class, "WEBGET", "webget [<url>] (post:<data>) (headers:<header>/<value>|...) (timeout:<duration>/{10s}) (savefile:<path>)", 1);
         registerCoreMember(WhileCommand.class, "WHILE", "while [stop/next/<comparison tag>] [<commands>]", 1);
         registerCoreMember(YamlCommand.class, "YAML", "yaml [create]/[load:<file>]/[loadtext:<text> (fix_formatting)]/[unload]/[savefile:<file>]/[copykey:<source key> <target key> (to_id:<name>)]/[set <key>([<#>])(:<action>):<value>] [id:<name>]", 2);
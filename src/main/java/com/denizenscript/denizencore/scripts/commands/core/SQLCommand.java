@@ -7,23 +7,33 @@ import com.denizenscript.denizencore.scripts.commands.Holdable;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.utilities.scheduling.AsyncSchedulable;
 import com.denizenscript.denizencore.utilities.scheduling.OneTimeSchedulable;
+import com.denizenscript.denizencore.utilities.scheduling.RepeatingSchedulable;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.objects.ArgumentHelper;
 import com.denizenscript.denizencore.objects.core.ListTag;
+import com.denizenscript.denizencore.objects.core.ScriptTag;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
+import com.denizenscript.denizencore.scripts.queues.core.InstantQueue;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 import com.denizenscript.denizencore.tags.core.EscapeTagBase;
+import com.denizenscript.denizencore.utilities.sql.SQLConnectionPool;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 public class SQLCommand extends AbstractCommand implements Holdable {
 
     // <--[command]
     // @Name SQL
-    // @Syntax sql [id:<ID>] [disconnect/connect:<server> (username:<username>) (password:<password>) (ssl:true/{false})/query:<query>/update:<update>]
+    // @Syntax sql [id:<ID>] [disconnect/connect:<server> (username:<username>) (password:<password>) (ssl:true/{false}) (pool_size:<#>)/query:<query>/update:<update>/batch:<update>|...] (parameters:<list>) (fetch_size:<#>) (page_size:<#> page_script:<script>)
     // @Required 2
     // @Short Interacts with a MySQL server.
     // @Group core
@@ -33,8 +43,26 @@ public class SQLCommand extends AbstractCommand implements Holdable {
     // The general usage order is connect -> update/query -> disconnect.
     // It is not required that you disconnect right after using, and in fact encouraged that you keep a connection open where possible.
     // When connecting, the server format is IP:Port/Database, EG 'localhost:3306/test'.
+    // Alternately, give a full JDBC URL (starting with 'jdbc:') to use any other driver that is available, such as an in-process database.
     // You can switch whether SSL is used for the connection (defaults to false).
     // Note that when using tag, it is recommended you escape unusual inputs to avoid SQL injection.
+    // Better yet, write the query with '?' placeholders and give the values as a list with 'parameters:',
+    // which binds each value in order rather than inserting it into the query text.
+    // Queries with parameters are prepared once per connection and reused afterward.
+    // Each connection ID holds a pool of connections, so that waited-for (~) queries can run at the same time.
+    // Specify 'pool_size' to control how many connections the pool may open at once (defaults to 1).
+    // Waited-for queries wait for a busy pool to free up a connection, but any other SQL command fails immediately instead,
+    // as it runs on the main thread.
+    // Pooled connections that sit unused for a few minutes are closed, and reopened when needed again.
+    // Use 'batch:' with a list of update statements to send all of them to the server as a single batch.
+    // Batches are sent as plain statements, so 'parameters' can't be used with 'batch:'.
+    // For large query results, specify 'page_size' and 'page_script' to stream the results rather than collecting them all at once.
+    // The page script will be run once per page of rows, in order, with the definitions 'rows' (a list of rows),
+    // 'columns' (a list of column names) and 'page' (the page number, starting at 1).
+    // Each row is itself a list of the column values, typed as numbers or booleans where the column type allows it.
+    // Streamed results are not available as '<entry[saveName].result>'.
+    // When waited-for (~), reading from the server pauses until the page scripts catch up, so no more than a couple of pages are held in memory at once.
+    // Specify 'fetch_size' to hint to the driver how many rows to fetch from the server at a time.
     // The SQL command is merely a wrapper for SQL queries, and further usage details should be gathered from an official
     // MySQL query reference rather than from Denizen command help.
     // SQL connections are not instant - they can take several seconds, or just never connect at all.
@@ -43,7 +71,8 @@ public class SQLCommand extends AbstractCommand implements Holdable {
     //
     // @Tags
     // <entry[saveName].result> returns a ListTag of all rows from a query or update command, of the form li@escaped_text/escaped_text|escaped_text/escaped_text
-    // <entry[saveName].affected_rows> returns how many rows were affected by an update command.
+    // <entry[saveName].affected_rows> returns how many rows were affected by an update or batch command.
+    // <entry[saveName].row_count> returns how many rows were streamed to a page script.
     //
     // @Usage
     // Use to connect to an SQL server.
@@ -54,6 +83,10 @@ public class SQLCommand extends AbstractCommand implements Holdable {
     // - ~sql id:name connect:localhost:3306/test username:space password:space ssl:true
     //
     // @Usage
+    // Use to connect to an SQL server with a pool of up to 4 connections.
+    // - ~sql id:name connect:localhost:3306/test username:space password:space pool_size:4
+    //
+    // @Usage
     // Use to connect to an SQL server with a UTF8 text encoding.
     // - ~sql id:name connect:localhost:3306/test?characterEncoding=utf8 username:space password:space
     //
@@ -76,21 +109,74 @@ public class SQLCommand extends AbstractCommand implements Holdable {
     // - narrate <entry[saveName2].result>
     //
     // @Usage
+    // Use to query an SQL server with a bound parameter.
+    // - ~sql id:name "query:SELECT id,column_name1,column_name2 FROM things WHERE column_name1=?;" parameters:<[name]> save:saveName3
+    // - narrate <entry[saveName3].result>
+    //
+    // @Usage
+    // Use to stream a large query to a task script, 500 rows at a time.
+    // - ~sql id:name "query:SELECT id,column_name1 FROM things;" page_size:500 fetch_size:500 page_script:my_page_task
+    //
+    // @Usage
+    // Use to run several updates as a single batch.
+    // - sql id:name "batch:INSERT INTO things VALUES (4, 'a', 'b');|INSERT INTO things VALUES (5, 'c', 'd');"
+    //
+    // @Usage
     // Use to disconnect from an SQL server.
     // - sql disconnect id:name
     // -->
 
-    public static Map<String, Connection> connections = new HashMap<>();
+
+    public static Map<String, SQLConnectionPool> connections = new HashMap<>();
+
+    /**
+     * How often idle pooled connections are checked for eviction, in seconds.
+     */
+    public static float evictionIntervalSeconds = 60;
+
+    private static RepeatingSchedulable evictionTask = null;
+
+    /**
+     * Starts periodically closing idle pooled connections, if not already doing so.
+     * The connections are closed on the async executor, as closing one can block on the network.
+     */
+    public static void scheduleIdleEviction() {
+        if (evictionTask != null) {
+            return;
+        }
+        evictionTask = new RepeatingSchedulable(new Runnable() {
+            @Override
+            public void run() {
+                if (connections.isEmpty()) {
+                    return;
+                }
+                final List<SQLConnectionPool> pools = new ArrayList<>(connections.values());
+                try {
+                    AsyncSchedulable.executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            for (SQLConnectionPool pool : pools) {
+                                pool.evictIdle();
+                            }
+                        }
+                    });
+                }
+                catch (RejectedExecutionException ex) {
+                    // Too busy right now - try again next interval
+                }
+            }
+        }, evictionIntervalSeconds);
+        DenizenCore.schedule(evictionTask);
+    }
 
     @Override
     public void onDisable() {
-        for (Map.Entry<String, Connection> entry : connections.entrySet()) {
-            try {
-                entry.getValue().close();
-            }
-            catch (SQLException e) {
-                Debug.echoError(e);
-            }
+        if (evictionTask != null) {
+            evictionTask.cancel();
+            evictionTask = null;
+        }
+        for (Map.Entry<String, SQLConnectionPool> entry : connections.entrySet()) {
+            entry.getValue().close();
         }
         connections.clear();
     }
@@ -123,6 +209,27 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                 scriptEntry.addObject("action", new ElementTag("UPDATE"));
                 scriptEntry.addObject("query", arg.asElement());
             }
+            else if (!scriptEntry.hasObject("query")
+                    && arg.matchesPrefix("batch")) {
+                scriptEntry.addObject("action", new ElementTag("BATCH"));
+                scriptEntry.addObject("batch", arg.asType(ListTag.class));
+                scriptEntry.addObject("query", arg.asElement());
+            }
+            else if (!scriptEntry.hasObject("fetch_size")
+                    && arg.matchesPrefix("fetch_size")
+                    && arg.matchesPrimitive(ArgumentHelper.PrimitiveType.Integer)) {
+                scriptEntry.addObject("fetch_size", arg.asElement());
+            }
+            else if (!scriptEntry.hasObject("page_size")
+                    && arg.matchesPrefix("page_size")
+                    && arg.matchesPrimitive(ArgumentHelper.PrimitiveType.Integer)) {
+                scriptEntry.addObject("page_size", arg.asElement());
+            }
+            else if (!scriptEntry.hasObject("page_script")
+                    && arg.matchesPrefix("page_script")
+                    && arg.matchesArgumentType(ScriptTag.class)) {
+                scriptEntry.addObject("page_script", arg.asType(ScriptTag.class));
+            }
             else if (!scriptEntry.hasObject("username")
                     && arg.matchesPrefix("username")) {
                 scriptEntry.addObject("username", arg.asElement());
@@ -136,6 +243,15 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                     && arg.asElement().isBoolean()) {
                 scriptEntry.addObject("ssl", arg.asElement());
             }
+            else if (!scriptEntry.hasObject("pool_size")
+                    && arg.matchesPrefix("pool_size")
+                    && arg.matchesPrimitive(ArgumentHelper.PrimitiveType.Integer)) {
+                scriptEntry.addObject("pool_size", arg.asElement());
+            }
+            else if (!scriptEntry.hasObject("parameters")
+                    && arg.matchesPrefix("parameters", "params")) {
+                scriptEntry.addObject("parameters", arg.asType(ListTag.class));
+            }
             else {
                 arg.reportUnhandled();
             }
@@ -149,9 +265,17 @@ public class SQLCommand extends AbstractCommand implements Holdable {
             scriptEntry.defaultObject("ssl", new ElementTag("false"));
         }
 
+        scriptEntry.defaultObject("pool_size", new ElementTag(1));
+        scriptEntry.defaultObject("fetch_size", new ElementTag(0));
+        scriptEntry.defaultObject("page_size", new ElementTag(100));
+
         if (!scriptEntry.hasObject("action")) {
             throw new InvalidArgumentsException("Must specify an action!");
         }
+
+        if (scriptEntry.hasObject("batch") && scriptEntry.hasObject("parameters")) {
+            throw new InvalidArgumentsException("Parameters can't be used with a batch!");
+        }
     }
 
     @Override
@@ -162,8 +286,14 @@ public class SQLCommand extends AbstractCommand implements Holdable {
         final ElementTag username = scriptEntry.getElement("username");
         final ElementTag password = scriptEntry.getElement("password");
         final ElementTag ssl = scriptEntry.getElement("ssl");
+        final ElementTag poolSize = scriptEntry.getElement("pool_size");
         final ElementTag sqlID = scriptEntry.getElement("sqlid");
         final ElementTag query = scriptEntry.getElement("query");
+        final ListTag parameters = scriptEntry.getObjectTag("parameters");
+        final ListTag batch = scriptEntry.getObjectTag("batch");
+        final ElementTag fetchSize = scriptEntry.getElement("fetch_size");
+        final ElementTag pageSize = scriptEntry.getElement("page_size");
+        final ScriptTag pageScript = scriptEntry.getObjectTag("page_script");
 
         if (scriptEntry.dbCallShouldDebug()) {
 
@@ -172,7 +302,11 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                     + (server != null ? server.debug() : "")
                     + (username != null ? username.debug() : "")
                     + (password != null ? ArgumentHelper.debugObj("password", "NotLogged") : "")
-                    + (query != null ? query.debug() : ""));
+                    + (server != null ? poolSize.debug() : "")
+                    + (query != null ? query.debug() : "")
+                    + (parameters != null ? parameters.debug() : "")
+                    + (query != null ? fetchSize.debug() : "")
+                    + (pageScript != null ? pageSize.debug() + pageScript.debug() : ""));
 
         }
 
@@ -202,12 +336,12 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                 DenizenCore.schedule(new AsyncSchedulable(new OneTimeSchedulable(new Runnable() {
                     @Override
                     public void run() {
-                        Connection con = null;
+                        SQLConnectionPool con = null;
                         if (Debug.verbose) {
                             Debug.echoDebug(scriptEntry, "Connecting to " + server.asString());
                         }
                         try {
-                            con = getConnection(username.asString(), password.asString(), server.asString(), ssl.asString());
+                            con = getConnectionPool(username.asString(), password.asString(), server.asString(), ssl.asString(), poolSize.asInt());
                         }
                         catch (final Exception e) {
                             DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
@@ -224,12 +358,13 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                         if (Debug.verbose) {
                             Debug.echoDebug(scriptEntry, "Connection did not error");
                         }
-                        final Connection conn = con;
+                        final SQLConnectionPool conn = con;
                         if (con != null) {
                             DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
                                 @Override
                                 public void run() {
                                     connections.put(sqlID.asString().toUpperCase(), conn);
+                                    scheduleIdleEviction();
                                     Debug.echoDebug(scriptEntry, "Successfully connected to " + server);
                                     scriptEntry.setFinished(true);
                                 }
@@ -250,7 +385,7 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                 }, 0)));
             }
             else if (action.asString().equalsIgnoreCase("disconnect")) {
-                Connection con = connections.get(sqlID.asString().toUpperCase());
+                SQLConnectionPool con = connections.get(sqlID.asString().toUpperCase());
                 if (con == null) {
                     Debug.echoError(scriptEntry.getResidingQueue(), "Not connected to server with ID '" + sqlID.asString() + "'!");
                     return;
@@ -264,7 +399,7 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                     Debug.echoError(scriptEntry.getResidingQueue(), "Must specify a query!");
                     return;
                 }
-                final Connection con = connections.get(sqlID.asString().toUpperCase());
+                final SQLConnectionPool con = connections.get(sqlID.asString().toUpperCase());
                 if (con == null) {
                     Debug.echoError(scriptEntry.getResidingQueue(), "Not connected to server with ID '" + sqlID.asString() + "'!");
                     return;
@@ -275,32 +410,55 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                         @Override
                         public void run() {
                             try {
-                                Statement statement = con.createStatement();
-                                ResultSet set = statement.executeQuery(query.asString());
-                                ResultSetMetaData rsmd = set.getMetaData();
-                                final int columns = rsmd.getColumnCount();
-                                DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        Debug.echoDebug(scriptEntry, "Got a query result of " + columns + " columns");
-                                    }
-                                }, 0));
-                                int count = 0;
-                                ListTag rows = new ListTag();
-                                while (set.next()) {
-                                    count++;
-                                    StringBuilder current = new StringBuilder();
-                                    for (int i = 0; i < columns; i++) {
-                                        current.append(EscapeTagBase.escape(set.getString(i + 1))).append("/");
-                                    }
-                                    rows.add(current.toString());
+                                if (pageScript != null) {
+                                    final int maxPending = Math.max(1, MAX_PENDING_PAGES);
+                                    final Semaphore pendingPages = new Semaphore(maxPending);
+                                    final int count = streamQuery(con, con.borrowTimeoutMillis, query.asString(), parameters, fetchSize.asInt(), pageSize.asInt(), new PageHandler() {
+                                        @Override
+                                        public void handle(final int page, final ListTag columns, final ListTag rows) throws SQLException {
+                                            awaitPages(pendingPages, 1);
+                                            DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
+                                                @Override
+                                                public void run() {
+                                                    Runnable done = new Runnable() {
+                                                        boolean released = false;
+                                                        @Override
+                                                        public void run() {
+                                                            if (!released) {
+                                                                released = true;
+                                                                pendingPages.release();
+                                                            }
+                                                        }
+                                                    };
+                                                    try {
+                                                        runPageScript(scriptEntry, pageScript, page, columns, rows, done);
+                                                    }
+                                                    catch (RuntimeException ex) {
+                                                        done.run();
+                                                        throw ex;
+                                                    }
+                                                }
+                                            }, 0));
+                                        }
+                                    });
+                                    // Wait for the last pages' scripts before completing the command
+                                    awaitPages(pendingPages, maxPending);
+                                    scriptEntry.addObject("row_count", new ElementTag(count));
+                                    DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            Debug.echoDebug(scriptEntry, "Streamed a query result of " + count + " rows");
+                                            scriptEntry.setFinished(true);
+                                        }
+                                    }, 0));
+                                    return;
                                 }
+                                final ListTag rows = runQuery(con, con.borrowTimeoutMillis, query.asString(), parameters, fetchSize.asInt());
                                 scriptEntry.addObject("result", rows);
-                                final int finalCount = count;
                                 DenizenCore.schedule(new OneTimeSchedulable(new Runnable() {
                                     @Override
                                     public void run() {
-                                        Debug.echoDebug(scriptEntry, "Got a query result of " + finalCount + " rows");
+                                        Debug.echoDebug(scriptEntry, "Got a query result of " + rows.size() + " rows");
                                         scriptEntry.setFinished(true);
                                     }
                                 }, 0));
@@ -320,25 +478,20 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                         }
                     }, 0)));
                 }
-                else {
-                    Statement statement = con.createStatement();
-                    ResultSet set = statement.executeQuery(query.asString());
-                    ResultSetMetaData rsmd = set.getMetaData();
-                    final int columns = rsmd.getColumnCount();
-                    Debug.echoDebug(scriptEntry, "Got a query result of " + columns + " columns");
-                    int count = 0;
-                    ListTag rows = new ListTag();
-                    while (set.next()) {
-                        count++;
-                        StringBuilder current = new StringBuilder();
-                        for (int i = 0; i < columns; i++) {
-                            current.append(EscapeTagBase.escape(set.getString(i + 1))).append("/");
+                else if (pageScript != null) {
+                    int count = streamQuery(con, 0, query.asString(), parameters, fetchSize.asInt(), pageSize.asInt(), new PageHandler() {
+                        @Override
+                        public void handle(int page, ListTag columns, ListTag rows) {
+                            runPageScript(scriptEntry, pageScript, page, columns, rows, null);
                         }
-                        rows.add(current.toString());
-                    }
+                    });
+                    scriptEntry.addObject("row_count", new ElementTag(count));
+                    Debug.echoDebug(scriptEntry, "Streamed a query result of " + count + " rows");
+                }
+                else {
+                    ListTag rows = runQuery(con, 0, query.asString(), parameters, fetchSize.asInt());
                     scriptEntry.addObject("result", rows);
-                    final int finalCount = count;
-                    Debug.echoDebug(scriptEntry, "Got a query result of " + finalCount + " rows");
+                    Debug.echoDebug(scriptEntry, "Got a query result of " + rows.size() + " rows");
                 }
             }
             else if (action.asString().equalsIgnoreCase("update")) {
@@ -346,28 +499,51 @@ public class SQLCommand extends AbstractCommand implements Holdable {
                     Debug.echoError(scriptEntry.getResidingQueue(), "Must specify an update query!");
                     return;
                 }
-                Connection con = connections.get(sqlID.asString().toUpperCase());
+                SQLConnectionPool con = connections.get(sqlID.asString().toUpperCase());
                 if (con == null) {
                     Debug.echoError(scriptEntry.getResidingQueue(), "Not connected to server with ID '" + sqlID.asString() + "'!");
                     return;
                 }
                 Debug.echoDebug(scriptEntry, "Running update " + query.asString());
-                Statement statement = con.createStatement();
-                int affected = statement.executeUpdate(query.asString(), Statement.RETURN_GENERATED_KEYS);
-                scriptEntry.addObject("affected_rows", new ElementTag(affected));
-                ResultSet set = statement.getGeneratedKeys();
-                ResultSetMetaData rsmd = set.getMetaData();
-                int columns = rsmd.getColumnCount();
-                Debug.echoDebug(scriptEntry, "Got a query result of " + columns + " columns");
-                ListTag rows = new ListTag();
-                while (set.next()) {
-                    StringBuilder current = new StringBuilder();
-                    for (int i = 0; i < columns; i++) {
-                        current.append(EscapeTagBase.escape(set.getString(i + 1))).append("/");
+                SQLConnectionPool.PooledConnection connection = con.borrow(0);
+                int affected;
+                try {
+                    Statement statement;
+                    if (parameters != null) {
+                        PreparedStatement prepared = connection.prepare(query.asString());
+                        bindParameters(prepared, parameters);
+                        affected = prepared.executeUpdate();
+                        statement = prepared;
+                    }
+                    else {
+                        statement = connection.connection.createStatement();
+                        affected = statement.executeUpdate(query.asString(), Statement.RETURN_GENERATED_KEYS);
+                    }
+                    try {
+                        scriptEntry.addObject("affected_rows", new ElementTag(affected));
+                        ListTag rows = readRows(statement.getGeneratedKeys());
+                        scriptEntry.addObject("result", rows);
+                    }
+                    finally {
+                        if (parameters == null) {
+                            statement.close();
+                        }
                     }
-                    rows.add(current.toString());
                 }
-                scriptEntry.addObject("result", rows);
+                finally {
+                    con.release(connection);
+                }
+                Debug.echoDebug(scriptEntry, "Updated " + affected + " rows");
+            }
+            else if (action.asString().equalsIgnoreCase("batch")) {
+                SQLConnectionPool con = connections.get(sqlID.asString().toUpperCase());
+                if (con == null) {
+                    Debug.echoError(scriptEntry.getResidingQueue(), "Not connected to server with ID '" + sqlID.asString() + "'!");
+                    return;
+                }
+                Debug.echoDebug(scriptEntry, "Running batch of " + batch.size() + " updates");
+                int affected = runBatch(con, 0, batch);
+                scriptEntry.addObject("affected_rows", new ElementTag(affected));
                 Debug.echoDebug(scriptEntry, "Updated " + affected + " rows");
             }
             else {
@@ -382,12 +558,247 @@ public class SQLCommand extends AbstractCommand implements Holdable {
         }
     }
 
-    public Connection getConnection(String userName, String password, String server, String ssl) throws SQLException {
+    /**
+     * Runs a query and returns all of its rows. borrowTimeout is how long to wait for a free connection, in milliseconds.
+     */
+    public static ListTag runQuery(SQLConnectionPool pool, long borrowTimeout, String query, ListTag parameters, int fetchSize) throws SQLException {
+        SQLConnectionPool.PooledConnection connection = pool.borrow(borrowTimeout);
+        try {
+            if (parameters != null) {
+                PreparedStatement statement = connection.prepare(query);
+                bindParameters(statement, parameters);
+                statement.setFetchSize(fetchSize);
+                return readRows(statement.executeQuery());
+            }
+            Statement statement = connection.connection.createStatement();
+            try {
+                statement.setFetchSize(fetchSize);
+                return readRows(statement.executeQuery(query));
+            }
+            finally {
+                statement.close();
+            }
+        }
+        finally {
+            pool.release(connection);
+        }
+    }
+
+    public interface PageHandler {
+
+        void handle(int page, ListTag columns, ListTag rows) throws SQLException;
+    }
+
+    /**
+     * How many streamed pages a waited-for query may hand to the main thread before it waits for their page scripts to finish.
+     */
+    public static int MAX_PENDING_PAGES = 2;
+
+    /**
+     * Blocks the calling (async) thread until the given number of page slots are free.
+     */
+    public static void awaitPages(Semaphore pendingPages, int slots) throws SQLException {
+        try {
+            pendingPages.acquire(slots);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a page script to finish.");
+        }
+    }
+
+    /**
+     * Runs a query and hands its rows to the handler in pages of up to pageSize rows, without collecting the full result.
+     * Each row is a ListTag of typed column values. Returns the total number of rows read.
+     */
+    public static int streamQuery(SQLConnectionPool pool, long borrowTimeout, String query, ListTag parameters, int fetchSize, int pageSize, PageHandler handler) throws SQLException {
+        pageSize = Math.max(1, pageSize);
+        SQLConnectionPool.PooledConnection connection = pool.borrow(borrowTimeout);
+        try {
+            Statement statement;
+            ResultSet set;
+            if (parameters != null) {
+                PreparedStatement prepared = connection.prepare(query);
+                bindParameters(prepared, parameters);
+                prepared.setFetchSize(fetchSize);
+                set = prepared.executeQuery();
+                statement = null;
+            }
+            else {
+                statement = connection.connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                set = statement.executeQuery(query);
+            }
+            try {
+                ResultSetMetaData rsmd = set.getMetaData();
+                int columnCount = rsmd.getColumnCount();
+                ListTag columns = new ListTag();
+                int[] types = new int[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    columns.add(rsmd.getColumnLabel(i + 1));
+                    types[i] = rsmd.getColumnType(i + 1);
+                }
+                int count = 0;
+                int page = 0;
+                ListTag rows = new ListTag();
+                while (set.next()) {
+                    ListTag row = new ListTag();
+                    for (int i = 0; i < columnCount; i++) {
+                        row.addObject(getTypedValue(set, i + 1, types[i]));
+                    }
+                    rows.addObject(row);
+                    count++;
+                    if (rows.size() >= pageSize) {
+                        handler.handle(++page, columns, rows);
+                        rows = new ListTag();
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    handler.handle(++page, columns, rows);
+                }
+                return count;
+            }
+            finally {
+                set.close();
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        }
+        finally {
+            pool.release(connection);
+        }
+    }
+
+    public static ElementTag getTypedValue(ResultSet set, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT: {
+                long value = set.getLong(column);
+                return set.wasNull() ? new ElementTag("null") : new ElementTag(value);
+            }
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE: {
+                double value = set.getDouble(column);
+                return set.wasNull() ? new ElementTag("null") : new ElementTag(value);
+            }
+            case Types.DECIMAL:
+            case Types.NUMERIC: {
+                BigDecimal value = set.getBigDecimal(column);
+                return value == null ? new ElementTag("null") : new ElementTag(value);
+            }
+            case Types.BIT:
+            case Types.BOOLEAN: {
+                boolean value = set.getBoolean(column);
+                return set.wasNull() ? new ElementTag("null") : new ElementTag(value);
+            }
+            default: {
+                String value = set.getString(column);
+                return new ElementTag(value == null ? "null" : value);
+            }
+        }
+    }
+
+    /**
+     * Runs the page script for one page of streamed rows. If onComplete is non-null, it is called once the page script's queue finishes.
+     */
+    public static void runPageScript(ScriptEntry scriptEntry, ScriptTag script, int page, ListTag columns, ListTag rows, Runnable onComplete) {
+        List<ScriptEntry> entries = script.getContainer().getBaseEntries(scriptEntry.entryData.clone());
+        if (entries == null || entries.isEmpty()) {
+            // An empty queue never starts, so it would never call back
+            if (onComplete != null) {
+                onComplete.run();
+            }
+            return;
+        }
+        ScriptQueue queue = new InstantQueue(script.getContainer().getName()).addEntries(entries);
+        queue.addDefinition("rows", rows);
+        queue.addDefinition("columns", columns);
+        queue.addDefinition("page", new ElementTag(page));
+        if (onComplete != null) {
+            queue.callBack(onComplete);
+        }
+        queue.start();
+    }
+
+    /**
+     * Sends all the update statements to the server as one JDBC batch, and returns the total number of affected rows.
+     */
+    public static int runBatch(SQLConnectionPool pool, long borrowTimeout, ListTag updates) throws SQLException {
+        SQLConnectionPool.PooledConnection connection = pool.borrow(borrowTimeout);
+        try {
+            Statement statement = connection.connection.createStatement();
+            try {
+                for (String update : updates) {
+                    statement.addBatch(update);
+                }
+                int total = 0;
+                for (int affected : statement.executeBatch()) {
+                    if (affected > 0) {
+                        total += affected;
+                    }
+                }
+                return total;
+            }
+            finally {
+                statement.close();
+            }
+        }
+        finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Binds each value of the list, in order, to the statement's '?' placeholders.
+     * Numeric values are bound as numbers, anything else as text.
+     */
+    public static void bindParameters(PreparedStatement statement, ListTag parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            ElementTag value = new ElementTag(parameters.get(i));
+            if (value.isInt()) {
+                statement.setLong(i + 1, value.asLong());
+            }
+            else if (value.isDouble()) {
+                statement.setBigDecimal(i + 1, value.asBigDecimal());
+            }
+            else {
+                statement.setString(i + 1, value.asString());
+            }
+        }
+    }
+
+    public static ListTag readRows(ResultSet set) throws SQLException {
+        try {
+            ResultSetMetaData rsmd = set.getMetaData();
+            int columns = rsmd.getColumnCount();
+            ListTag rows = new ListTag();
+            while (set.next()) {
+                StringBuilder current = new StringBuilder();
+                for (int i = 0; i < columns; i++) {
+                    current.append(EscapeTagBase.escape(set.getString(i + 1))).append("/");
+                }
+                rows.add(current.toString());
+            }
+            return rows;
+        }
+        finally {
+            set.close();
+        }
+    }
+
+    public SQLConnectionPool getConnectionPool(String userName, String password, String server, String ssl, int poolSize) throws SQLException {
         Properties connectionProps = new Properties();
         connectionProps.put("user", userName);
         connectionProps.put("password", password);
         connectionProps.put("useSSL", ssl);
         connectionProps.put("LoginTimeout", "7");
-        return DriverManager.getConnection("jdbc:mysql://" + server, connectionProps);
+        String url = server.startsWith("jdbc:") ? server : "jdbc:mysql://" + server;
+        SQLConnectionPool pool = new SQLConnectionPool(url, connectionProps, poolSize);
+        pool.connect();
+        return pool;
     }
 }
@@ -7,15 +7,21 @@ import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.objects.core.ListTag;
 import com.denizenscript.denizencore.scripts.commands.AbstractCommand;
 import com.denizenscript.denizencore.scripts.commands.Holdable;
+import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.utilities.scheduling.Schedulable;
+import com.denizenscript.denizencore.utilities.web.WebRequestPool;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 
 import java.io.*;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ScheduledFuture;
 
 public class WebGetCommand extends AbstractCommand implements Holdable {
 
@@ -32,6 +38,9 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
     // Optionally, specify a set of data to post to the server (changes the message from GET to POST).
     // Optionally specify a list of headers as list of key/value pairs separated by slashes.
     // Optionally specify a path to save the gotten file to. This will remove the 'result' entry savedata. Path is relative to server base directory.
+    // The file is written as it downloads, so large files are never held in memory in full.
+    // The timeout applies to the whole request, not just connecting.
+    // Web requests run on a shared pool of background threads, with a limited number running at once per host; extra requests wait their turn.
     //
     // @Tags
     // <entry[saveName].failed> returns whether the webget failed.
@@ -45,6 +54,12 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
     //
     // -->
 
+    /**
+     * All webgets share this pool: at most 8 run at once, and at most 4 at once to any single host.
+     * Connections are left open for keep-alive reuse by the JVM's HTTP client.
+     */
+    public static WebRequestPool requestPool = new WebRequestPool("Denizen WebGet", 8, 1024, 4);
+
     @Override
     public void parseArgs(ScriptEntry scriptEntry) throws InvalidArgumentsException {
 
@@ -116,23 +131,50 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
                             + (headers != null ? headers.debug() : ""));
         }
 
-        Thread thr = new Thread(new Runnable() {
+        String host;
+        try {
+            host = new URL(url.asString().replace(" ", "%20")).getHost();
+        }
+        catch (MalformedURLException ex) {
+            host = url.asString();
+        }
+        boolean accepted = requestPool.submit(CoreUtilities.toLowerCase(host), new Runnable() {
             @Override
             public void run() {
                 webGet(scriptEntry, postData, url, timeout, headers, saveFile);
             }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                DenizenCore.schedule(new Schedulable() {
+                    @Override
+                    public boolean tick(float seconds) {
+                        Debug.echoError(scriptEntry.getResidingQueue(), "Webget could not start, as the async executor is shut down or has too much work queued.");
+                        scriptEntry.addObject("failed", new ElementTag("true"));
+                        scriptEntry.setFinished(true);
+                        return false;
+                    }
+                });
+            }
         });
-        thr.start();
+        if (!accepted) {
+            Debug.echoError(scriptEntry.getResidingQueue(), "Too many web requests are waiting already, webget refused.");
+            scriptEntry.addObject("failed", new ElementTag("true"));
+            scriptEntry.setFinished(true);
+        }
     }
 
     public void webGet(final ScriptEntry scriptEntry, final ElementTag postData, ElementTag urlp, DurationTag timeout, ListTag headers, ElementTag saveFile) {
 
         BufferedReader buffIn = null;
+        HttpURLConnection connection = null;
+        ScheduledFuture<?> timeoutTask = null;
         try {
             URL url = new URL(urlp.asString().replace(" ", "%20"));
             final HttpURLConnection uc = (HttpURLConnection) url.openConnection();
+            connection = uc;
             uc.setDoInput(true);
-            uc.setDoOutput(true);
+            uc.setDoOutput(postData != null);
             if (postData != null) {
                 uc.setRequestMethod("POST");
             }
@@ -145,26 +187,33 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
                 }
             }
             uc.setConnectTimeout((int) timeout.getMillis());
+            uc.setReadTimeout((int) timeout.getMillis());
+            timeoutTask = requestPool.enforceTimeout(uc, timeout.getMillis());
             uc.connect();
             if (postData != null) {
-                uc.getOutputStream().write(postData.asString().getBytes(StandardCharsets.UTF_8));
+                OutputStream out = uc.getOutputStream();
+                out.write(postData.asString().getBytes(StandardCharsets.UTF_8));
+                out.close();
             }
+            final int responseCode = uc.getResponseCode();
             final StringBuilder sb = new StringBuilder();
-            if (saveFile != null) {
+            if (responseCode >= 400) {
+                WebRequestPool.drain(uc.getErrorStream());
+            }
+            else if (saveFile != null) {
                 File file = new File(saveFile.asString());
                 if (!DenizenCore.getImplementation().canWriteToFile(file)) {
                     Debug.echoError("Cannot write to that file, as dangerous file paths have been disabled in the Denizen config.");
+                    WebRequestPool.drain(uc.getInputStream());
                 }
                 else {
                     InputStream in = uc.getInputStream();
-                    FileOutputStream fout = new FileOutputStream(file);
-                    byte[] buffer = new byte[8 * 1024];
-                    int len;
-                    while ((len = in.read(buffer)) > 0) {
-                        fout.write(buffer, 0, len);
+                    try {
+                        Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    finally {
+                        WebRequestPool.drain(in);
                     }
-                    fout.flush();
-                    fout.close();
                 }
             }
             else {
@@ -188,13 +237,8 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
             DenizenCore.schedule(new Schedulable() {
                 @Override
                 public boolean tick(float seconds) {
-                    try {
-                        scriptEntry.addObject("failed", new ElementTag(uc.getResponseCode() == 200 ? "false" : "true"));
-                    }
-                    catch (Exception e) {
-                        Debug.echoError(e);
-                    }
-                    if (saveFile == null) {
+                    scriptEntry.addObject("failed", new ElementTag(responseCode == 200 ? "false" : "true"));
+                    if (saveFile == null && responseCode < 400) {
                         scriptEntry.addObject("result", new ElementTag(sb.toString()));
                     }
                     scriptEntry.setFinished(true);
@@ -204,6 +248,9 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
         }
         catch (Exception e) {
             Debug.echoError(e);
+            if (connection != null) {
+                connection.disconnect();
+            }
             try {
                 DenizenCore.schedule(new Schedulable() {
                     @Override
@@ -219,6 +266,9 @@ public class WebGetCommand extends AbstractCommand implements Holdable {
             }
         }
         finally {
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+            }
             try {
                 if (buffIn != null) {
                     buffIn.close();
@@ -2,8 +2,8 @@ package com.denizenscript.denizencore.scripts.commands.file;
 
 import com.denizenscript.denizencore.exceptions.InvalidArgumentsException;
 import com.denizenscript.denizencore.objects.Argument;
-import com.denizenscript.denizencore.utilities.debugging.DebugLog;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
+import com.denizenscript.denizencore.utilities.debugging.LogFileWriter;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
@@ -11,8 +11,6 @@ import com.denizenscript.denizencore.scripts.commands.AbstractCommand;
 import com.denizenscript.denizencore.tags.TagManager;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.net.URLDecoder;
 
 public class LogCommand extends AbstractCommand {
@@ -35,6 +33,7 @@ public class LogCommand extends AbstractCommand {
     // You might choose to use this to record some important things, for example, every time a player
     // uses a dangerous command you might log the player's name and their location, so you'll know
     // who to blame if you find something damaged.
+    // Lines are written to the file in the background, and may take a moment to appear in the file.
     // Remember that the file location is inside the server's primary folder. You most likely want to prefix
     // file names with a folder name, For example: 'file:logs/security.log'
     //
@@ -131,61 +130,19 @@ public class LogCommand extends AbstractCommand {
 
         String output = TagManager.cleanOutputFully(message.asString());
 
-        file.getParentFile().mkdirs();
         if (type == Type.NONE) {
-            try {
-                FileWriter fw = new FileWriter(file, true);
-                fw.write(output + "\n");
-                fw.close();
-            }
-            catch (IOException e) {
-                Debug.echoError(scriptEntry.getResidingQueue(), "Error logging to file...");
-                Debug.echoError(scriptEntry.getResidingQueue(), e);
-            }
-            return;
+            LogFileWriter.append(file, output + "\n");
         }
         else if (type == Type.CLEAR) {
-            try {
-                FileWriter fw = new FileWriter(file);
-                if (output.length() > 0) {
-                    fw.write(output + "\n");
-                }
-                fw.close();
-            }
-            catch (IOException e) {
-                Debug.echoError(scriptEntry.getResidingQueue(), "Error logging to file...");
-                Debug.echoError(scriptEntry.getResidingQueue(), e);
-            }
-            return;
+            LogFileWriter.replace(file, output.length() > 0 ? output + "\n" : "");
         }
-
-        DebugLog log = new DebugLog("Denizen-ScriptLog-" + fileName, file.getAbsolutePath());
-
-        switch (type) {
-            case SEVERE:
-                log.severe(output);
-                break;
-
-            case INFO:
-                log.info(output);
-                break;
-
-            case WARNING:
-                log.warning(output);
-                break;
-
-            case FINE:
-                log.fine(output);
-                break;
-
-            case FINER:
-                log.finer(output);
-                break;
-
-            case FINEST:
-                log.finest(output);
+        else {
+            LogFileWriter.appendLine(file, type.name(), output);
         }
+    }
 
-        log.close();
+    @Override
+    public void onDisable() {
+        LogFileWriter.shutdown();
     }
 }
@@ -13,6 +13,7 @@ import com.denizenscript.denizencore.utilities.YamlConfiguration;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.utilities.scheduling.AsyncSchedulable;
 import com.denizenscript.denizencore.utilities.scheduling.OneTimeSchedulable;
+import com.denizenscript.denizencore.utilities.scheduling.WakeSignals;
 import com.denizenscript.denizencore.utilities.text.StringHolder;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
@@ -335,6 +336,7 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                             yamls.remove(id);
                         }
                         yamls.put(id, runnableConfigs[0]);
+                        signalChanged(id);
                         scriptEntry.setFinished(true);
                     }
                 };
@@ -380,12 +382,14 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                     yamls.remove(id);
                 }
                 yamls.put(id, config);
+                signalChanged(id);
                 scriptEntry.setFinished(true);
                 break;
 
             case UNLOAD:
                 if (yamls.containsKey(id)) {
                     yamls.remove(id);
+                    signalChanged(id);
                 }
                 else {
                     Debug.echoError("Unknown YAML ID '" + id + "'");
@@ -469,6 +473,7 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                 }
                 YamlConfiguration newSection = copySection(sourceSection);
                 destYaml.set(value.toString(), newSection);
+                signalChanged(toId != null ? toId.toString().toUpperCase() : id);
                 break;
             }
 
@@ -520,16 +525,11 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                             Set(yaml, index, keyStr, valueStr);
                             break;
                         case INSERT: {
-                            List<String> list = yaml.getStringList(keyStr);
-                            if (list == null) {
-                                list = new ArrayList<>();
-                            }
-                            list.add(valueStr);
-                            yaml.set(keyStr, list);
+                            yaml.getOrCreateList(keyStr).add(valueStr);
                             break;
                         }
                         case REMOVE: {
-                            List<String> list = yaml.getStringList(keyStr);
+                            List<Object> list = yaml.getList(keyStr);
                             if (list == null) {
                                 if (Debug.verbose) {
                                     Debug.echoDebug(scriptEntry, "List null!");
@@ -541,19 +541,17 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                                     Debug.echoDebug(scriptEntry, "Remove ind: " + index);
                                 }
                                 list.remove(index);
-                                yaml.set(keyStr, list);
                             }
                             else {
                                 if (Debug.verbose) {
                                     Debug.echoDebug(scriptEntry, "Remvoe value: " + valueStr);
                                 }
                                 for (int i = 0; i < list.size(); i++) {
-                                    if (list.get(i).equalsIgnoreCase(valueStr)) {
+                                    if (String.valueOf(list.get(i)).equalsIgnoreCase(valueStr)) {
                                         list.remove(i);
                                         break;
                                     }
                                 }
-                                yaml.set(keyStr, list);
                                 break;
                             }
                             break;
@@ -563,15 +561,11 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                             break;
                         }
                         case SPLIT: {
-                            List<String> list = yaml.getStringList(keyStr);
-                            if (list == null) {
-                                list = new ArrayList<>();
-                            }
-                            list.addAll(ListTag.valueOf(valueStr));
-                            yaml.set(keyStr, list);
+                            yaml.getOrCreateList(keyStr).addAll(ListTag.valueOf(valueStr));
                             break;
                         }
                     }
+                    signalChanged(id);
                 }
                 else {
                     Debug.echoError("Unknown YAML ID '" + id + "'");
@@ -584,29 +578,59 @@ public class YamlCommand extends AbstractCommand implements Holdable {
                 }
                 yamlConfiguration = new YamlConfiguration();
                 yamls.put(id.toUpperCase(), yamlConfiguration);
+                signalChanged(id);
                 break;
         }
 
     }
 
+    /**
+     * Wakes any WaitUntil commands that are waiting on tags for the given YAML ID.
+     */
+    public static void signalChanged(String id) {
+        if (WakeSignals.hasListeners()) {
+            WakeSignals.fire(WakeSignals.yamlSignal(id));
+            WakeSignals.fire("yaml");
+        }
+    }
+
     public YamlConfiguration copySection(YamlConfiguration section) {
         YamlConfiguration newSection = new YamlConfiguration();
         for (StringHolder key : section.getKeys(false)) {
-            Object obj = section.get(key.str);
-            if (obj instanceof YamlConfiguration) {
-                obj = copySection((YamlConfiguration) obj);
-            }
-            newSection.set(key.str, obj);
+            newSection.set(key.str, copyValue(section.get(key.str)));
         }
         return newSection;
     }
 
+    /**
+     * Lists are modified in place by SET, so copies must not share them with the source.
+     */
+    public Object copyValue(Object obj) {
+        if (obj instanceof YamlConfiguration) {
+            return copySection((YamlConfiguration) obj);
+        }
+        if (obj instanceof Map) {
+            Map<StringHolder, Object> map = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                map.put((StringHolder) entry.getKey(), copyValue(entry.getValue()));
+            }
+            return map;
+        }
+        if (obj instanceof List) {
+            return new ArrayList<Object>((List<?>) obj);
+        }
+        return obj;
+    }
+
     public String Get(YamlConfiguration yaml, int index, String key, String def) {
         if (index == -1) {
             return yaml.getString(key, def);
         }
         else {
-            List<String> list = yaml.getStringList(key);
+            List<Object> list = yaml.getList(key);
+            if (list == null) {
+                return def;
+            }
             if (index < 0) {
                 index = 0;
             }
@@ -616,7 +640,7 @@ public class YamlCommand extends AbstractCommand implements Holdable {
             if (list.size() == 0) {
                 return "";
             }
-            return list.get(index);
+            return String.valueOf(list.get(index));
         }
     }
 
@@ -625,10 +649,7 @@ public class YamlCommand extends AbstractCommand implements Holdable {
             yaml.set(key, value);
         }
         else {
-            List<String> list = yaml.getStringList(key);
-            if (list == null) {
-                list = new ArrayList<>();
-            }
+            List<Object> list = yaml.getOrCreateList(key);
             if (index < 0) {
                 index = 0;
             }
@@ -638,7 +659,6 @@ public class YamlCommand extends AbstractCommand implements Holdable {
             else {
                 list.set(index, value);
             }
-            yaml.set(key, list);
         }
     }
 
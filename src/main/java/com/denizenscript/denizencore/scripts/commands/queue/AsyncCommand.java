@@ -4,8 +4,10 @@ import com.denizenscript.denizencore.exceptions.InvalidArgumentsException;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 import com.denizenscript.denizencore.scripts.commands.BracedCommand;
 import com.denizenscript.denizencore.scripts.commands.Holdable;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.scripts.queues.core.InstantQueue;
 
+import java.util.HashMap;
 import java.util.List;
 
 public class AsyncCommand extends BracedCommand implements Holdable {
@@ -28,6 +30,10 @@ public class AsyncCommand extends BracedCommand implements Holdable {
     //
     // The safety of things such as editing worlds is NOT guaranteed.
     //
+    // The commands inside get a copy of the current definitions: changes made inside do not apply to the outside queue, nor the other way around.
+    // Async blocks run on a limited pool of worker threads (or on virtual threads, where the Java version supports them).
+    // When every worker is busy, an async block waits in line for one to free up, so a long-running async block may delay others.
+    //
     // Do NOT use this. This is VERY dangerous. It is added purely as a tech experiment, not something to use in serious code!
     //
     // @Tags
@@ -57,9 +63,13 @@ public class AsyncCommand extends BracedCommand implements Holdable {
         InstantQueue queue = new InstantQueue("ASYNC_COMMAND");
         queue.run_async = true;
         queue.addEntries(((List<BracedData>) scriptEntry.getObject("braces")).get(0).value);
-        queue.getAllDefinitions().putAll(scriptEntry.getResidingQueue().getAllDefinitions());
-        queue.contextSource = scriptEntry.getResidingQueue().contextSource;
-        queue.cachedContext = scriptEntry.getResidingQueue().cachedContext;
+        // The async queue gets its own copies of the definitions and context, so that neither side sees the other's changes mid-run.
+        ScriptQueue residingQueue = scriptEntry.getResidingQueue();
+        queue.getAllDefinitions().putAll(residingQueue.getAllDefinitions());
+        queue.contextSource = residingQueue.contextSource;
+        if (residingQueue.cachedContext != null) {
+            queue.cachedContext = new HashMap<>(residingQueue.cachedContext);
+        }
 
         // Setup a callback if the queue is being waited on
         if (scriptEntry.shouldWaitFor()) {
@@ -91,6 +91,31 @@ public class ChooseCommand extends BracedCommand {
     }
 
 
+    /**
+     * A case (or default) sub-command, paired with its cached body.
+     */
+    public static class CaseBody {
+
+        public ScriptEntry caseEntry;
+
+        public BracedData body;
+    }
+
+    /**
+     * Returns the cached body of a case (or default) sub-command, or null if it has none.
+     */
+    public static CaseBody getCaseBody(ScriptEntry caseEntry) {
+        List<BracedData> body = getBracedCommands(caseEntry, false);
+        if (body == null || body.isEmpty()) {
+            Debug.echoError("Empty choose command case sub-commands (internal) for case '" + caseEntry.toString() + "'");
+            return null;
+        }
+        CaseBody result = new CaseBody();
+        result.caseEntry = caseEntry;
+        result.body = body.get(0);
+        return result;
+    }
+
     @Override
     public void execute(ScriptEntry scriptEntry) {
 
@@ -101,9 +126,10 @@ public class ChooseCommand extends BracedCommand {
         }
         List<ScriptEntry> bracedCommandsList = bdlist.get(0).value;
 
-        HashMap<String, Integer> lookupTable = null;
+        // Maps each case value to its case entry and the (cached, unmodifiable) body of that case, so a choice only needs to copy the one body it runs.
+        HashMap<String, CaseBody> lookupTable = null;
         if (scriptEntry.internal.specialProcessedData instanceof HashMap) {
-            lookupTable = (HashMap<String, Integer>) scriptEntry.internal.specialProcessedData;
+            lookupTable = (HashMap<String, CaseBody>) scriptEntry.internal.specialProcessedData;
         }
         else {
             lookupTable = new HashMap<>();
@@ -111,13 +137,19 @@ public class ChooseCommand extends BracedCommand {
                 ScriptEntry se = bracedCommandsList.get(i);
                 String cmdName = CoreUtilities.toLowerCase(se.getCommandName());
                 if (cmdName.equals("default")) {
-                    lookupTable.put("\0DEFAULT", i);
+                    CaseBody body = getCaseBody(se);
+                    if (body != null) {
+                        lookupTable.put("\0DEFAULT", body);
+                    }
                     break;
                 }
                 else if (cmdName.equals("case")) {
                     if (se.getArguments().size() > 0) {
-                        for (String arg : se.getArguments()) {
-                            lookupTable.put(CoreUtilities.toLowerCase(arg), i);
+                        CaseBody body = getCaseBody(se);
+                        if (body != null) {
+                            for (String arg : se.getArguments()) {
+                                lookupTable.put(CoreUtilities.toLowerCase(arg), body);
+                            }
                         }
                     }
                     else {
@@ -139,31 +171,20 @@ public class ChooseCommand extends BracedCommand {
 
         String choice_low = CoreUtilities.toLowerCase(choice.asString());
 
-        Integer resultIndex = lookupTable.get(choice_low);
+        CaseBody result = lookupTable.get(choice_low);
 
-        if (resultIndex == null) {
-            resultIndex = lookupTable.get("\0DEFAULT");
-            if (resultIndex == null) {
+        if (result == null) {
+            result = lookupTable.get("\0DEFAULT");
+            if (result == null) {
                 Debug.echoDebug(scriptEntry, "No result!");
                 return;
             }
         }
 
-        ScriptEntry result = bracedCommandsList.get(resultIndex);
-
-        List<BracedData> new_commands = getBracedCommands(result);
-
-        if (new_commands == null || new_commands.isEmpty()) {
-            Debug.echoError(scriptEntry.getResidingQueue(), "Empty choose command case sub-commands (internal) for case '" + result.toString() + "'");
-            return;
-        }
-
-        List<ScriptEntry> new_command_list = new_commands.get(0).value;
+        List<ScriptEntry> new_command_list = duplicateSection(scriptEntry, result.caseEntry, result.body).value;
 
         for (ScriptEntry newEntry : new_command_list) {
             newEntry.setInstant(true);
-            newEntry.entryData.transferDataFrom(scriptEntry.entryData);
-            newEntry.entryData.scriptEntry = newEntry;
         }
 
         scriptEntry.setInstant(true);
@@ -8,6 +8,7 @@ import com.denizenscript.denizencore.utilities.data.DataAction;
 import com.denizenscript.denizencore.utilities.data.DataActionHelper;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.objects.core.ElementTag;
+import com.denizenscript.denizencore.objects.core.ListTag;
 import com.denizenscript.denizencore.objects.ArgumentHelper;
 import com.denizenscript.denizencore.objects.ObjectTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
@@ -76,6 +77,16 @@ public class DefineCommand extends AbstractCommand {
         public void setValueAt(String keyName, ObjectTag value) {
             queue.addDefinition(keyName, value);
         }
+
+        @Override
+        public ListTag getMutableListAt(String keyName) {
+            return queue.getOwnedDefinitionList(keyName);
+        }
+
+        @Override
+        public void setOwnedListAt(String keyName, ListTag list) {
+            queue.addOwnedDefinitionList(keyName, list);
+        }
     }
 
     @Override
@@ -7,14 +7,16 @@ import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.objects.core.ListTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 import com.denizenscript.denizencore.scripts.commands.BracedCommand;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ForeachCommand extends BracedCommand {
 
     // <--[command]
     // @Name Foreach
-    // @Syntax foreach [stop/next/<object>|...] (as:<name>) [<commands>]
+    // @Syntax foreach [stop/next/<object>|...] (as:<name>) (key:<name>) [<commands>]
     // @Required 1
     // @Short Loops through a ListTag, running a set of commands for each item.
     // @Group queue
@@ -26,6 +28,11 @@ public class ForeachCommand extends BracedCommand {
     //
     // Optionally, specify "as:<name>" to change the definition name to something other than "value".
     //
+    // The value definition holds the list item itself, so a list of objects gives the original objects (not a copy re-read from text).
+    //
+    // Optionally, specify "key:<name>" to loop through a map-style list (of "key/value" entries, see <@link tag ListTag.map_get>).
+    // Each entry is split once when the loop starts, and the key is placed in the given definition name, with the value in the value definition.
+    //
     // To end a foreach loop, do - foreach stop
     //
     // To jump immediately to the next entry in the loop, do - foreach next
@@ -45,11 +52,33 @@ public class ForeachCommand extends BracedCommand {
     //     - narrate "Thanks for coming to our server! Here's a bonus $50.00!" player:<[player]>
     //     - give <[player]> money qty:50
     //
+    // @Usage
+    // Use to loop through the keys and values of a map-style list.
+    // - foreach one/a|two/b key:letter:
+    //     - narrate "<[letter]> is <[value]>"
+    //
     // -->
 
     private class ForeachData {
         public int index;
         public ListTag list;
+        public String keyName;
+        public List<ElementTag> keys;
+        public List<ElementTag> values;
+
+        public int size() {
+            return keys != null ? keys.size() : list.size();
+        }
+
+        public void define(ScriptQueue queue, String valueName) {
+            if (keys != null) {
+                queue.addDefinition(keyName, keys.get(index - 1));
+                queue.addDefinition(valueName, values.get(index - 1));
+            }
+            else {
+                queue.addDefinition(valueName, list.getObject(index - 1));
+            }
+        }
     }
 
     @Override
@@ -83,8 +112,14 @@ public class ForeachCommand extends BracedCommand {
                     && arg.matchesOnePrefix("as")) {
                 scriptEntry.addObject("as_name", arg.asElement());
             }
+            else if (!scriptEntry.hasObject("key_name")
+                    && arg.matchesOnePrefix("key")) {
+                scriptEntry.addObject("key_name", arg.asElement());
+            }
             else if (!handled) {
-                scriptEntry.addObject("list", ListTag.valueOf(arg.raw_value));
+                // Keep the list's own objects where the argument is a single tag that returned them,
+                // but iterate a copy, so that edits to the original list inside the loop don't change the running loop
+                scriptEntry.addObject("list", arg.object == null || arg.object instanceof ElementTag ? ListTag.valueOf(arg.raw_value) : new ListTag(ListTag.getListFor(arg.object)));
                 scriptEntry.addObject("braces", getBracedCommands(scriptEntry));
                 handled = true;
             }
@@ -119,27 +154,7 @@ public class ForeachCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), stop.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("foreach") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("foreach") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        scriptEntry.getResidingQueue().removeEntry(0);
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("foreach", true)) {
                 Debug.echoError(scriptEntry.getResidingQueue(), "Cannot stop foreach: not in one!");
             }
             return;
@@ -149,41 +164,23 @@ public class ForeachCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), next.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("foreach") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("foreach") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("foreach", false)) {
                 Debug.echoError(scriptEntry.getResidingQueue(), "Cannot stop foreach: not in one!");
             }
             return;
         }
         else if (callback != null && callback.asBoolean()) {
+            scriptEntry.getResidingQueue().exitLoop(scriptEntry);
             if (scriptEntry.getOwner() != null && (scriptEntry.getOwner().getCommandName().equalsIgnoreCase("foreach") ||
                     scriptEntry.getOwner().getBracedSet() == null || scriptEntry.getOwner().getBracedSet().size() == 0 ||
                     scriptEntry.getBracedSet().get(0).value.get(scriptEntry.getBracedSet().get(0).value.size() - 1) != scriptEntry)) {
                 ForeachData data = (ForeachData) scriptEntry.getOwner().getData();
                 data.index++;
-                if (data.index <= data.list.size()) {
+                if (data.index <= data.size()) {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "Foreach loop " + data.index);
                     scriptEntry.getResidingQueue().addDefinition("loop_index", String.valueOf(data.index));
-                    scriptEntry.getResidingQueue().addDefinition(as_name.asString(), String.valueOf(data.list.get(data.index - 1)));
-                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedCommands(scriptEntry.getOwner()).get(0).value;
+                    data.define(scriptEntry.getResidingQueue(), as_name.asString());
+                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedSection(scriptEntry.getOwner(), 0).value;
                     ScriptEntry callbackEntry = new ScriptEntry("FOREACH", new String[]{"\0CALLBACK", "as:" + as_name.asString()},
                             (scriptEntry.getScript() != null ? scriptEntry.getScript().getContainer() : null));
                     callbackEntry.copyFrom(scriptEntry);
@@ -192,7 +189,7 @@ public class ForeachCommand extends BracedCommand {
                     for (int i = 0; i < bracedCommands.size(); i++) {
                         bracedCommands.get(i).setInstant(true);
                     }
-                    scriptEntry.getResidingQueue().injectEntries(bracedCommands, 0);
+                    scriptEntry.getResidingQueue().enterLoop("foreach", bracedCommands);
                 }
                 else {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "Foreach loop complete");
@@ -219,9 +216,11 @@ public class ForeachCommand extends BracedCommand {
                 return;
             }
 
+            ElementTag key_name = scriptEntry.getElement("key_name");
+
             // Report to dB
             if (scriptEntry.dbCallShouldDebug()) {
-                Debug.report(scriptEntry, getName(), list.debug() + as_name.debug());
+                Debug.report(scriptEntry, getName(), list.debug() + as_name.debug() + (key_name != null ? key_name.debug() : ""));
             }
 
             int target = list.size();
@@ -232,19 +231,29 @@ public class ForeachCommand extends BracedCommand {
             ForeachData datum = new ForeachData();
             datum.list = list;
             datum.index = 1;
+            if (key_name != null) {
+                datum.keyName = key_name.asString();
+                datum.keys = new ArrayList<>(target);
+                datum.values = new ArrayList<>(target);
+                for (String entry : list) {
+                    int split = entry.indexOf('/');
+                    datum.keys.add(new ElementTag(split == -1 ? entry : entry.substring(0, split)));
+                    datum.values.add(new ElementTag(split == -1 ? "" : entry.substring(split + 1)));
+                }
+            }
             scriptEntry.setData(datum);
             ScriptEntry callbackEntry = new ScriptEntry("FOREACH", new String[]{"\0CALLBACK", "as:" + as_name.asString()},
                     (scriptEntry.getScript() != null ? scriptEntry.getScript().getContainer() : null));
             callbackEntry.copyFrom(scriptEntry);
             callbackEntry.setOwner(scriptEntry);
             bracedCommandsList.add(callbackEntry);
-            scriptEntry.getResidingQueue().addDefinition(as_name.asString(), list.get(0));
+            datum.define(scriptEntry.getResidingQueue(), as_name.asString());
             scriptEntry.getResidingQueue().addDefinition("loop_index", "1");
             for (int i = 0; i < bracedCommandsList.size(); i++) {
                 bracedCommandsList.get(i).setInstant(true);
             }
             scriptEntry.setInstant(true);
-            scriptEntry.getResidingQueue().injectEntries(bracedCommandsList, 0);
+            scriptEntry.getResidingQueue().enterLoop("foreach", bracedCommandsList);
         }
     }
 }
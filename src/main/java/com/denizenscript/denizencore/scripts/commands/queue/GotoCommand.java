@@ -6,8 +6,11 @@ import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 import com.denizenscript.denizencore.scripts.commands.AbstractCommand;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
+import com.denizenscript.denizencore.utilities.CoreUtilities;
 
 import java.util.List;
+import java.util.Map;
 
 public class GotoCommand extends AbstractCommand {
 
@@ -59,6 +62,48 @@ public class GotoCommand extends AbstractCommand {
     }
 
 
+    /**
+     * Uses the mark table built with the script (see ScriptEntrySet) to find how many queue entries precede the mark.
+     * Returns -1 if the mark isn't in the same script section, or the queue no longer lines up with the script (for example, if entries were injected).
+     */
+    public static int findMarkFromIndex(ScriptEntry scriptEntry, String name) {
+        Map<String, int[]> marks = scriptEntry.internal.setMarks;
+        if (marks == null) {
+            return -1;
+        }
+        int[] indices = marks.get(CoreUtilities.toLowerCase(name));
+        if (indices == null) {
+            return -1;
+        }
+        int start = scriptEntry.internal.setIndex;
+        for (int index : indices) {
+            if (index > start) {
+                int skip = index - start - 1;
+                ScriptQueue queue = scriptEntry.getResidingQueue();
+                if (skip >= queue.getQueueSize()) {
+                    return -1;
+                }
+                ScriptEntry target = queue.getEntry(skip);
+                if (target.internal.setMarks == marks && target.internal.setIndex == index) {
+                    return skip;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    public static int findMarkByScan(ScriptQueue queue, String name) {
+        for (int i = 0; i < queue.getQueueSize(); i++) {
+            ScriptEntry entry = queue.getEntry(i);
+            List<String> args = entry.getOriginalArguments();
+            if (entry.getCommandName().equalsIgnoreCase("mark") && args.size() > 0 && args.get(0).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public void execute(ScriptEntry scriptEntry) {
 
@@ -71,27 +116,16 @@ public class GotoCommand extends AbstractCommand {
         }
 
         // Jump forth
-        boolean hasmark = false;
-        for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-            ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-            List<String> args = entry.getOriginalArguments();
-            if (entry.getCommandName().equalsIgnoreCase("mark") && args.size() > 0 && args.get(0).equalsIgnoreCase(mName.asString())) {
-                hasmark = true;
-                break;
-            }
+        ScriptQueue queue = scriptEntry.getResidingQueue();
+        int skip = findMarkFromIndex(scriptEntry, mName.asString());
+        if (skip == -1) {
+            skip = findMarkByScan(queue, mName.asString());
         }
-        if (hasmark) {
-            while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("mark") && args.size() > 0 && args.get(0).equalsIgnoreCase(mName.asString())) {
-                    break;
-                }
-                scriptEntry.getResidingQueue().removeEntry(0);
-            }
+        if (skip != -1) {
+            queue.removeFirstEntries(skip);
         }
         else {
-            Debug.echoError(scriptEntry.getResidingQueue(), "Cannot go to that location - doesn't seem to exist!");
+            Debug.echoError(queue, "Cannot go to that location - doesn't seem to exist!");
         }
     }
 }
@@ -55,7 +55,7 @@ public class IfCommand extends BracedCommand {
         boolean has_brace = scriptEntry.getInsideList() != null;
         if (has_brace) {
             List<BracedData> allData = new ArrayList<>();
-            BracedData ifRef = getBracedCommands(scriptEntry).get(0);
+            BracedData ifRef = getBracedSection(scriptEntry, 0);
             ifRef.key = scriptEntry.toString();
             ifRef.args = new ArrayList<>();
             ifRef.args.add("if");
@@ -75,7 +75,7 @@ public class IfCommand extends BracedCommand {
                     CommandExecuter.handleDefs(nextEntry, false);
                 }
                 scriptEntry.getResidingQueue().script_entries.remove(0);
-                BracedData elseRef = getBracedCommands(nextEntry).get(0);
+                BracedData elseRef = getBracedSection(nextEntry, 0);
                 elseRef.key = nextEntry.toString();
                 elseRef.args = new ArrayList<>();
                 elseRef.args.add("else");
@@ -2,20 +2,21 @@ package com.denizenscript.denizencore.scripts.commands.queue;
 
 import com.denizenscript.denizencore.exceptions.InvalidArgumentsException;
 import com.denizenscript.denizencore.objects.Argument;
+import com.denizenscript.denizencore.objects.ArgumentHelper;
 import com.denizenscript.denizencore.objects.core.DurationTag;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 import com.denizenscript.denizencore.scripts.commands.AbstractCommand;
 import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
+import com.denizenscript.denizencore.utilities.scheduling.RateLimitStore;
 
-import java.util.HashMap;
 
 public class RateLimitCommand extends AbstractCommand {
 
     // <--[command]
     // @Name RateLimit
-    // @Syntax ratelimit [<object>] [<duration>]
+    // @Syntax ratelimit [<object>] [<duration>] (burst:<#>)
     // @Required 2
     // @Short Limits the rate that queues may process a script at.
     // @Group queue
@@ -29,6 +30,12 @@ public class RateLimitCommand extends AbstractCommand {
     // those are two separate rate limiters.
     // Additionally, if you have a 'ratelimit <player> 10s' and two different players run it, they each have a separate rate limit applied.
     //
+    // Optionally, specify a burst size to allow that many runs in a row before limiting.
+    // Each object then gains back one run per duration, up to the burst size.
+    // For example, 'ratelimit <player> 10s burst:3' allows three runs at once, then one more every ten seconds.
+    //
+    // Rate limits are kept across script reloads (as long as the line stays the same), and are forgotten once fully expired.
+    //
     // @Tags
     // None.
     //
@@ -36,13 +43,23 @@ public class RateLimitCommand extends AbstractCommand {
     // Use to show a message to a player no faster than once every ten seconds.
     // - ratelimit <player> 10s
     // - narrate "Wow!"
+    //
+    // @Usage
+    // Use to let a player use an ability up to three times in a row, then once every five seconds.
+    // - ratelimit <player> 5s burst:3
+    // - narrate "Zap!"
     // -->
 
     @Override
     public void parseArgs(ScriptEntry scriptEntry) throws InvalidArgumentsException {
 
         for (Argument arg : scriptEntry.getProcessedArgs()) {
-            if (arg.matchesArgumentType(DurationTag.class)
+            if (arg.matchesPrefix("burst")
+                    && !scriptEntry.hasObject("burst")
+                    && arg.matchesPrimitive(ArgumentHelper.PrimitiveType.Integer)) {
+                scriptEntry.addObject("burst", arg.asElement());
+            }
+            else if (arg.matchesArgumentType(DurationTag.class)
                 && !scriptEntry.hasObject("duration")) {
                 scriptEntry.addObject("duration", arg.asType(DurationTag.class));
             }
@@ -53,6 +70,8 @@ public class RateLimitCommand extends AbstractCommand {
                 arg.reportUnhandled();
             }
         }
+
+        scriptEntry.defaultObject("burst", new ElementTag(1));
     }
 
     @Override
@@ -61,24 +80,35 @@ public class RateLimitCommand extends AbstractCommand {
 
         DurationTag duration = scriptEntry.getObjectTag("duration");
         ElementTag object = scriptEntry.getElement("object");
+        ElementTag burst = scriptEntry.getElement("burst");
 
         if (scriptEntry.dbCallShouldDebug()) {
-            Debug.report(scriptEntry, getName(), duration.debug() + object.debug());
+            Debug.report(scriptEntry, getName(), duration.debug() + object.debug() + burst.debug());
         }
 
-        if (scriptEntry.internal.specialProcessedData == null) {
-            scriptEntry.internal.specialProcessedData = new HashMap<>();
-        }
-        HashMap<String, Long> map = (HashMap<String, Long>) scriptEntry.internal.specialProcessedData;
-        String key = CoreUtilities.toLowerCase(object.asString());
-        Long endTime = map.get(key);
-        long curTime = System.currentTimeMillis();
-        if (endTime != null && curTime < endTime) {
-            Debug.echoDebug(scriptEntry, "Rate limit applied with " + (endTime - curTime) + "ms left.");
+        String key = getLineKey(scriptEntry) + CoreUtilities.toLowerCase(object.asString());
+        long waitMillis = RateLimitStore.instance.tryUse(key, duration.getMillis(), burst.asInt());
+        if (waitMillis > 0) {
+            Debug.echoDebug(scriptEntry, "Rate limit applied with " + waitMillis + "ms left.");
             scriptEntry.getResidingQueue().clear();
             scriptEntry.getResidingQueue().stop();
-            return;
         }
-        map.put(key, curTime + duration.getMillis());
+    }
+
+    /**
+     * Returns a key unique to the script line, which stays the same across reloads.
+     * Lines outside of any script (eg from the 'ex' command) are only unique to that script entry.
+     */
+    public static String getLineKey(ScriptEntry scriptEntry) {
+        if (scriptEntry.internal.specialProcessedData == null) {
+            if (scriptEntry.getScript() != null) {
+                scriptEntry.internal.specialProcessedData = CoreUtilities.toLowerCase(scriptEntry.getScript().getName())
+                        + ":" + scriptEntry.internal.lineNumber + ":" + String.valueOf(scriptEntry.internal.originalLine).hashCode() + ":";
+            }
+            else {
+                scriptEntry.internal.specialProcessedData = "entry:" + System.identityHashCode(scriptEntry.internal) + ":";
+            }
+        }
+        return (String) scriptEntry.internal.specialProcessedData;
     }
 }
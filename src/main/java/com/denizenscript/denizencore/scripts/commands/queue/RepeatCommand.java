@@ -113,27 +113,7 @@ public class RepeatCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), stop.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("repeat") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("repeat") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        scriptEntry.getResidingQueue().removeEntry(0);
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("repeat", true)) {
                 Debug.echoError("Cannot stop repeat: not in one!");
             }
             return;
@@ -143,31 +123,13 @@ public class RepeatCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), next.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("repeat") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("repeat") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("repeat", false)) {
                 Debug.echoError("Cannot stop repeat: not in one!");
             }
             return;
         }
         else if (callback != null && callback.asBoolean()) {
+            scriptEntry.getResidingQueue().exitLoop(scriptEntry);
             if (scriptEntry.getOwner() != null && (scriptEntry.getOwner().getCommandName().equalsIgnoreCase("repeat") ||
                     scriptEntry.getOwner().getBracedSet() == null || scriptEntry.getOwner().getBracedSet().size() == 0 ||
                     scriptEntry.getBracedSet().get(0).value.get(scriptEntry.getBracedSet().get(0).value.size() - 1) != scriptEntry)) {
@@ -176,7 +138,7 @@ public class RepeatCommand extends BracedCommand {
                 if (data.index <= data.target) {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "Repeat loop " + data.index);
                     scriptEntry.getResidingQueue().addDefinition(as_name.asString(), String.valueOf(data.index));
-                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedCommands(scriptEntry.getOwner()).get(0).value;
+                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedSection(scriptEntry.getOwner(), 0).value;
                     ScriptEntry callbackEntry = new ScriptEntry("REPEAT", new String[] {"\0CALLBACK", "as:" + as_name.asString()},
                             (scriptEntry.getScript() != null ? scriptEntry.getScript().getContainer() : null));
                     callbackEntry.copyFrom(scriptEntry);
@@ -185,7 +147,7 @@ public class RepeatCommand extends BracedCommand {
                     for (int i = 0; i < bracedCommands.size(); i++) {
                         bracedCommands.get(i).setInstant(true);
                     }
-                    scriptEntry.getResidingQueue().injectEntries(bracedCommands, 0);
+                    scriptEntry.getResidingQueue().enterLoop("repeat", bracedCommands);
                 }
                 else {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "Repeat loop complete");
@@ -233,7 +195,7 @@ public class RepeatCommand extends BracedCommand {
                 bracedCommandsList.get(i).setInstant(true);
             }
             scriptEntry.setInstant(true);
-            scriptEntry.getResidingQueue().injectEntries(bracedCommandsList, 0);
+            scriptEntry.getResidingQueue().enterLoop("repeat", bracedCommandsList);
         }
     }
 }
@@ -12,13 +12,15 @@ import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.scripts.queues.core.InstantQueue;
 import com.denizenscript.denizencore.scripts.queues.core.TimedQueue;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RunCommand extends AbstractCommand implements Holdable {
 
     // <--[command]
     // @Name Run
-    // @Syntax run (locally) [<script>] (path:<name>) (def:<element>|...) (id:<name>) (instantly) (speed:<value>) (delay:<value>)
+    // @Syntax run (locally) [<script>] (path:<name>) (def:<element>|...) (def.<name>:<value>) (id:<name>) (instantly) (speed:<value>) (delay:<value>)
     // @Required 1
     // @Short Runs a script in a new ScriptQueue.
     // @Video /denizen/vids/Run%20And%20Inject
@@ -39,6 +41,11 @@ public class RunCommand extends AbstractCommand implements Holdable {
     // Definitions are not carried over if not specified.
     // (See <@link command define>)
     //
+    // Each entry of the 'def:' list becomes one definition, named by the task script's 'definitions' key (or numbered, if not named there).
+    // To pass a single definition by name, use 'def.<name>:<value>'. The value is passed as-is,
+    // so a list or other object given this way arrives as that same object, rather than being split up or converted to text.
+    // Objects within a 'def:' list that came from a tag are likewise passed as the original objects.
+    //
     // Specifying a player argument will run the queue with a player attached
     // to that queue. The same can be done to attach an npc.
     // Player and npc are not carried over to the new queue if not specified.
@@ -59,6 +66,10 @@ public class RunCommand extends AbstractCommand implements Holdable {
     // - run MyNewTask def:friends player:p@bob npc:<player.selected_npc>
     //
     // @Usage
+    // Use to run a new queue with a whole list passed as a single definition named 'players'
+    // - run MyNewTask def.players:<server.list_online_players>
+    //
+    // @Usage
     // Use to run a new queue instant with the same attached player
     // - run MyNewTask instantly player:<player>
     //
@@ -76,7 +87,19 @@ public class RunCommand extends AbstractCommand implements Holdable {
                 scriptEntry.addObject("id", arg.asElement());
             }
             else if (arg.matchesPrefix("d", "def", "define", "c", "context")) {
-                scriptEntry.addObject("definitions", arg.asElement());
+                scriptEntry.addObject("raw_definitions", arg.asElement());
+                // A tag that returned a list keeps its objects, rather than being re-read from text
+                scriptEntry.addObject("definitions", arg.object instanceof ElementTag ? ListTag.valueOf(arg.value) : ListTag.getListFor(arg.object));
+            }
+            else if (arg.lower_prefix != null && arg.lower_prefix.startsWith("def.") && arg.lower_prefix.length() > "def.".length()) {
+                // Only ever stored below, as a map of names to objects
+                @SuppressWarnings("unchecked")
+                Map<String, ObjectTag> named = (Map<String, ObjectTag>) scriptEntry.getObject("named_definitions");
+                if (named == null) {
+                    named = new LinkedHashMap<>();
+                    scriptEntry.addObject("named_definitions", named);
+                }
+                named.put(arg.prefix.substring("def.".length()), arg.object);
             }
             else if (arg.matches("instant", "instantly")) {
                 scriptEntry.addObject("instant", new ElementTag(true));
@@ -139,7 +162,8 @@ public class RunCommand extends AbstractCommand implements Holdable {
                             + (scriptEntry.hasObject("local") ? scriptEntry.getElement("local").debug() : "")
                             + (scriptEntry.hasObject("delay") ? scriptEntry.getObjectTag("delay").debug() : "")
                             + (scriptEntry.hasObject("id") ? scriptEntry.getObjectTag("id").debug() : "")
-                            + (scriptEntry.hasObject("definitions") ? scriptEntry.getObjectTag("definitions").debug() : "")
+                            + (scriptEntry.hasObject("raw_definitions") ? scriptEntry.getElement("raw_definitions").debug() : "")
+                            + (scriptEntry.hasObject("named_definitions") ? ArgumentHelper.debugObj("named_definitions", scriptEntry.getObject("named_definitions")) : "")
                             + (scriptEntry.hasObject("speed") ? scriptEntry.getObjectTag("speed").debug() : ""));
         }
 
@@ -208,8 +232,8 @@ public class RunCommand extends AbstractCommand implements Holdable {
         // Set any definitions
         if (scriptEntry.hasObject("definitions")) {
             int x = 1;
-            ElementTag raw_defintions = scriptEntry.getElement("definitions");
-            ListTag definitions = ListTag.valueOf(raw_defintions.asString());
+            ElementTag raw_defintions = scriptEntry.getElement("raw_definitions");
+            ListTag definitions = scriptEntry.getObjectTag("definitions");
             String[] definition_names = null;
             try {
                 if (script != null && script.getContainer() != null) {
@@ -222,7 +246,7 @@ public class RunCommand extends AbstractCommand implements Holdable {
             catch (Exception e) {
                 // TODO: less lazy handling
             }
-            for (String definition : definitions) {
+            for (ObjectTag definition : definitions.objectForms) {
                 String name = definition_names != null && definition_names.length >= x ?
                         definition_names[x - 1].trim() : String.valueOf(x);
                 queue.addDefinition(name, definition);
@@ -232,6 +256,16 @@ public class RunCommand extends AbstractCommand implements Holdable {
             queue.addDefinition("raw_context", raw_defintions.asString());
         }
 
+        // Set any named definitions, as the objects given
+        if (scriptEntry.hasObject("named_definitions")) {
+            @SuppressWarnings("unchecked")
+            Map<String, ObjectTag> named = (Map<String, ObjectTag>) scriptEntry.getObject("named_definitions");
+            for (Map.Entry<String, ObjectTag> definition : named.entrySet()) {
+                queue.addDefinition(definition.getKey(), definition.getValue());
+                Debug.echoDebug(scriptEntry, "Adding definition '" + definition.getKey() + "' as " + definition.getValue());
+            }
+        }
+
 
         // Setup a callback if the queue is being waited on
         if (scriptEntry.shouldWaitFor()) {
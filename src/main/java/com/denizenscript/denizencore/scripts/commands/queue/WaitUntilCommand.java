@@ -3,8 +3,11 @@ package com.denizenscript.denizencore.scripts.commands.queue;
 import com.denizenscript.denizencore.exceptions.InvalidArgumentsException;
 import com.denizenscript.denizencore.objects.Argument;
 import com.denizenscript.denizencore.objects.core.DurationTag;
+import com.denizenscript.denizencore.objects.core.ListTag;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.utilities.scheduling.RepeatingSchedulable;
+import com.denizenscript.denizencore.utilities.scheduling.WakeSignals;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.objects.ArgumentHelper;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
@@ -13,13 +16,15 @@ import com.denizenscript.denizencore.scripts.commands.Holdable;
 import com.denizenscript.denizencore.scripts.queues.core.TimedQueue;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class WaitUntilCommand extends AbstractCommand implements Holdable {
 
     // <--[command]
     // @Name WaitUntil
-    // @Syntax waituntil (rate:<duration>) [<comparisons>]
+    // @Syntax waituntil (rate:<duration>) (wake_on:<event>|...) [<comparisons>]
     // @Required 1
     // @Short Delays a script until the If comparisons return true.
     // @Group queue
@@ -32,12 +37,32 @@ public class WaitUntilCommand extends AbstractCommand implements Holdable {
     // unless you're concerned about script efficiency.
     // Never set this to faster than queue update rate.
     //
+    // If every tag in the comparisons is a bare definition tag (like <[name]>) or a direct read of a YAML document
+    // (like <yaml[id].read[path]>, with no further tags after it), each with a plain, non-tag name or ID,
+    // the comparisons are only re-checked (at the update rate) after one of those definitions or YAML documents is changed
+    // through the YAML command, rather than being re-checked constantly.
+    // Any other tags (including anything read from a definition's value, like <[player].is_online>) can't be watched this way,
+    // so the comparisons will then be re-checked every update as normal.
+    //
+    // Optionally, specify a list of script event names to wake on (like "wake_on:delta time").
+    // These are event names (ignoring spaces and capitalization), not full event lines, so any switches or details are not checked.
+    // In that case, the comparisons are re-checked whenever any of those events fire (as well as when any watchable tag changes),
+    // and otherwise left alone. Use this when you know which events can change the result of other tags.
+    //
     // @Tags
     // <QueueTag.speed>
     //
     // @Usage
     // Use to delay the current queue until the player respawns (useful in a death event, for example).
     // - waituntil <player.is_spawned>
+    //
+    // @Usage
+    // Use to delay the current queue until another queue changes a YAML document.
+    // - waituntil <yaml[mydata].read[ready]>
+    //
+    // @Usage
+    // Use to delay the current queue until the player respawns, only checking when a player respawns.
+    // - waituntil wake_on:player respawns <player.is_spawned>
     // -->
 
     @Override
@@ -52,13 +77,23 @@ public class WaitUntilCommand extends AbstractCommand implements Holdable {
 
         List<String> arguments = scriptEntry.getArguments();
 
+        int consumed = 0;
         for (Argument arg : scriptEntry.getProcessedArgs()) {
-            if (arg.matchesPrefix("rate")) {
+            if (arg.matchesPrefix("rate")
+                    && !scriptEntry.hasObject("rate")) {
                 scriptEntry.addObject("rate", arg.asType(DurationTag.class));
-                arguments = new ArrayList<>(arguments);
-                arguments.remove(0);
             }
-            break;
+            else if (arg.matchesPrefix("wake_on")
+                    && !scriptEntry.hasObject("wake_on")) {
+                scriptEntry.addObject("wake_on", arg.asType(ListTag.class));
+            }
+            else {
+                break;
+            }
+            consumed++;
+        }
+        if (consumed > 0) {
+            arguments = new ArrayList<>(arguments.subList(consumed, arguments.size()));
         }
 
         scriptEntry.addObject("comparisons", arguments);
@@ -70,13 +105,15 @@ public class WaitUntilCommand extends AbstractCommand implements Holdable {
 
         List<String> comparisons = (List<String>) scriptEntry.getObject("comparisons");
         DurationTag rate = scriptEntry.getObjectTag("rate");
+        ListTag wakeOn = scriptEntry.getObjectTag("wake_on");
 
         boolean run = new IfCommand.ArgComparer().compare(new ArrayList<>(comparisons), scriptEntry);
 
         // Report to dB
         if (scriptEntry.dbCallShouldDebug()) {
             Debug.report(scriptEntry, getName(), ArgumentHelper.debugObj("run_first_check", run)
-                    + (rate == null ? "" : rate.debug()));
+                    + (rate == null ? "" : rate.debug())
+                    + (wakeOn == null ? "" : wakeOn.debug()));
         }
 
         if (run) {
@@ -93,16 +130,51 @@ public class WaitUntilCommand extends AbstractCommand implements Holdable {
             }
         }
 
+        Set<String> signals = WakeSignals.getSignalsForTags(comparisons, scriptEntry);
+        if (wakeOn != null) {
+            if (signals == null) {
+                signals = new HashSet<>();
+            }
+            for (String event : wakeOn) {
+                signals.add(WakeSignals.eventSignal(event));
+            }
+        }
+        else if (signals != null && signals.isEmpty()) {
+            // No tags at all, so nothing could ever wake it - just poll as normal.
+            signals = null;
+        }
+        final WakeSignals.WakeListener listener = signals == null ? null : new WakeSignals.WakeListener();
+        if (listener != null) {
+            WakeSignals.listen(listener, signals);
+        }
+        final String queueId = scriptEntry.getResidingQueue().id;
         final RepeatingSchedulable schedulable = new RepeatingSchedulable(null, (float) rate.getSeconds());
         schedulable.run = new Runnable() {
             public int counter = 0;
             @Override
             public void run() {
+                if (!ScriptQueue.queueExists(queueId)) {
+                    stop();
+                    return;
+                }
+                if (listener != null) {
+                    if (!listener.signalled) {
+                        return;
+                    }
+                    listener.signalled = false;
+                }
                 counter++;
                 if (new IfCommand.ArgComparer().compare(new ArrayList<>(comparisons), scriptEntry)) {
                     Debug.echoDebug(scriptEntry, "WaitUntil completed after " + counter + " re-checks.");
                     scriptEntry.setFinished(true);
-                    schedulable.cancel();
+                    stop();
+                }
+            }
+
+            public void stop() {
+                schedulable.cancel();
+                if (listener != null) {
+                    WakeSignals.stopListening(listener);
                 }
             }
         };
@@ -95,27 +95,7 @@ public class WhileCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), stop.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("while") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("while") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        scriptEntry.getResidingQueue().removeEntry(0);
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("while", true)) {
                 Debug.echoError(scriptEntry.getResidingQueue(), "Cannot stop while: not in one!");
             }
             return;
@@ -125,31 +105,13 @@ public class WhileCommand extends BracedCommand {
             if (scriptEntry.dbCallShouldDebug()) {
                 Debug.report(scriptEntry, getName(), next.debug());
             }
-            boolean hasnext = false;
-            for (int i = 0; i < scriptEntry.getResidingQueue().getQueueSize(); i++) {
-                ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(i);
-                List<String> args = entry.getOriginalArguments();
-                if (entry.getCommandName().equalsIgnoreCase("while") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                    hasnext = true;
-                    break;
-                }
-            }
-            if (hasnext) {
-                while (scriptEntry.getResidingQueue().getQueueSize() > 0) {
-                    ScriptEntry entry = scriptEntry.getResidingQueue().getEntry(0);
-                    List<String> args = entry.getOriginalArguments();
-                    if (entry.getCommandName().equalsIgnoreCase("while") && args.size() > 0 && args.get(0).equalsIgnoreCase("\0CALLBACK")) {
-                        break;
-                    }
-                    scriptEntry.getResidingQueue().removeEntry(0);
-                }
-            }
-            else {
+            if (!scriptEntry.getResidingQueue().breakLoop("while", false)) {
                 Debug.echoError(scriptEntry.getResidingQueue(), "Cannot stop while: not in one!");
             }
             return;
         }
         else if (callback != null && callback.asBoolean()) {
+            scriptEntry.getResidingQueue().exitLoop(scriptEntry);
             if (scriptEntry.getOwner() != null && (scriptEntry.getOwner().getCommandName().equalsIgnoreCase("while") ||
                     scriptEntry.getOwner().getBracedSet() == null || scriptEntry.getOwner().getBracedSet().size() == 0 ||
                     scriptEntry.getBracedSet().get(0).value.get(scriptEntry.getBracedSet().get(0).value.size() - 1) != scriptEntry)) {
@@ -170,7 +132,7 @@ public class WhileCommand extends BracedCommand {
                 if (run) {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "While loop " + data.index);
                     scriptEntry.getResidingQueue().addDefinition("loop_index", String.valueOf(data.index));
-                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedCommands(scriptEntry.getOwner()).get(0).value;
+                    List<ScriptEntry> bracedCommands = BracedCommand.getBracedSection(scriptEntry.getOwner(), 0).value;
                     ScriptEntry callbackEntry = new ScriptEntry("WHILE", new String[] {"\0CALLBACK"},
                             (scriptEntry.getScript() != null ? scriptEntry.getScript().getContainer() : null));
                     callbackEntry.copyFrom(scriptEntry);
@@ -179,7 +141,7 @@ public class WhileCommand extends BracedCommand {
                     for (int i = 0; i < bracedCommands.size(); i++) {
                         bracedCommands.get(i).setInstant(true);
                     }
-                    scriptEntry.getResidingQueue().injectEntries(bracedCommands, 0);
+                    scriptEntry.getResidingQueue().enterLoop("while", bracedCommands);
                 }
                 else {
                     Debug.echoDebug(scriptEntry, Debug.DebugElement.Header, "While loop complete");
@@ -229,7 +191,7 @@ public class WhileCommand extends BracedCommand {
                 bracedCommandsList.get(i).setInstant(true);
             }
             scriptEntry.setInstant(true);
-            scriptEntry.getResidingQueue().injectEntries(bracedCommandsList, 0);
+            scriptEntry.getResidingQueue().enterLoop("while", bracedCommandsList);
         }
     }
 }
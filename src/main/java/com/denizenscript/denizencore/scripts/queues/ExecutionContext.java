@@ -0,0 +1,51 @@
+package com.denizenscript.denizencore.scripts.queues;
+
+import com.denizenscript.denizencore.DenizenCore;
+import com.denizenscript.denizencore.objects.Argument;
+
+import java.util.List;
+
+/**
+ * Holds the state of whatever script is currently running on a given thread.
+ * Each thread gets its own context, so that async queues can run alongside the main thread (and each other) safely.
+ * The main thread's context is kept in a plain field, so the common case doesn't need a ThreadLocal lookup.
+ */
+public class ExecutionContext {
+
+    /**
+     * The queue whose command is currently executing on this thread, if any.
+     */
+    public ScriptQueue currentQueue;
+
+    /**
+     * Whether a tag is currently being filled on this thread.
+     */
+    public boolean isInTag = false;
+
+    /**
+     * The raw argument list of the command currently being parsed, paired with its pre-filled Argument objects.
+     * See ArgumentHelper.interpret.
+     */
+    public List<String> specialInterpretTrickStrings;
+
+    public List<Argument> specialInterpretTrickObjects;
+
+    private static final ExecutionContext mainContext = new ExecutionContext();
+
+    private static final ThreadLocal<ExecutionContext> threadContexts = new ThreadLocal<ExecutionContext>() {
+        @Override
+        protected ExecutionContext initialValue() {
+            return new ExecutionContext();
+        }
+    };
+
+    /**
+     * Returns the context for the current thread.
+     */
+    public static ExecutionContext current() {
+        if (Thread.currentThread() == DenizenCore.MAIN_THREAD) {
+            return mainContext;
+        }
+        return threadContexts.get();
+    }
+}
@@ -11,15 +11,18 @@ import com.denizenscript.denizencore.utilities.DefinitionProvider;
 import com.denizenscript.denizencore.utilities.QueueWordList;
 import com.denizenscript.denizencore.utilities.debugging.Debuggable;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
+import com.denizenscript.denizencore.utilities.scheduling.AsyncExecutor;
 import com.denizenscript.denizencore.utilities.scheduling.AsyncSchedulable;
 import com.denizenscript.denizencore.utilities.scheduling.OneTimeSchedulable;
 import com.denizenscript.denizencore.utilities.scheduling.Schedulable;
+import com.denizenscript.denizencore.utilities.scheduling.WakeSignals;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.events.ScriptEvent;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 /**
@@ -50,10 +53,13 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
                         +((float) event.stats.nanoTimes / 1000000f / (float) event.stats.scriptFires) + "ms per script.\n");
             }
         }
+        AsyncExecutor executor = AsyncSchedulable.executor;
         return "Total number of queues created: "
                 + total_queues
                 + ", currently active queues: "
-                + allQueues.size() + ",\n" + stats.toString();
+                + allQueues.size()
+                + ", async tasks running: " + executor.getActiveCount()
+                + ", async tasks waiting: " + executor.getQueuedCount() + ",\n" + stats.toString();
     }
 
 
@@ -163,6 +169,12 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
 
     private final HashMap<String, ObjectTag> definitions = new HashMap<>();
 
+    /**
+     * Names of definitions holding a list that was built by a list action and hasn't been handed out since,
+     * so list actions may modify it in place rather than copying it.
+     */
+    private HashSet<String> ownedDefinitionLists = null;
+
     public ListTag determinations = null;
 
     private final HashMap<String, ScriptEntry> held_entries = new HashMap<>();
@@ -270,7 +282,40 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
         if (definition == null) {
             return null;
         }
-        return definitions.get(CoreUtilities.toLowerCase(definition));
+        String name = CoreUtilities.toLowerCase(definition);
+        if (ownedDefinitionLists != null) {
+            // The object may now be stored elsewhere, so it can't be modified in place anymore
+            ownedDefinitionLists.remove(name);
+        }
+        return definitions.get(name);
+    }
+
+    /**
+     * Returns the list held by a definition if it can be modified in place, or null if it must be copied.
+     * A definition's list is only modified in place if it was set by addOwnedDefinitionList and hasn't been read out since.
+     */
+    public ListTag getOwnedDefinitionList(String definition) {
+        if (ownedDefinitionLists == null) {
+            return null;
+        }
+        String name = CoreUtilities.toLowerCase(definition);
+        if (!ownedDefinitionLists.contains(name)) {
+            return null;
+        }
+        return (ListTag) definitions.get(name);
+    }
+
+    /**
+     * Sets a definition to a list that isn't referenced anywhere else, so that later list actions may modify it in place.
+     */
+    public void addOwnedDefinitionList(String definition, ListTag list) {
+        String name = CoreUtilities.toLowerCase(definition);
+        definitions.put(name, list);
+        if (ownedDefinitionLists == null) {
+            ownedDefinitionLists = new HashSet<>();
+        }
+        ownedDefinitionLists.add(name);
+        signalDefinitionChanged(definition);
     }
 
     @Override
@@ -295,13 +340,23 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
 
 
     public void addDefinition(String definition, ObjectTag value) {
-        definitions.put(CoreUtilities.toLowerCase(definition), value);
+        String name = CoreUtilities.toLowerCase(definition);
+        definitions.put(name, value);
+        if (ownedDefinitionLists != null) {
+            ownedDefinitionLists.remove(name);
+        }
+        signalDefinitionChanged(definition);
     }
 
 
     @Override
     public void addDefinition(String definition, String value) {
-        definitions.put(CoreUtilities.toLowerCase(definition), new ElementTag(value));
+        String name = CoreUtilities.toLowerCase(definition);
+        definitions.put(name, new ElementTag(value));
+        if (ownedDefinitionLists != null) {
+            ownedDefinitionLists.remove(name);
+        }
+        signalDefinitionChanged(definition);
     }
 
 
@@ -315,7 +370,18 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
      */
     @Override
     public void removeDefinition(String definition) {
-        definitions.remove(CoreUtilities.toLowerCase(definition));
+        String name = CoreUtilities.toLowerCase(definition);
+        definitions.remove(name);
+        if (ownedDefinitionLists != null) {
+            ownedDefinitionLists.remove(name);
+        }
+        signalDefinitionChanged(definition);
+    }
+
+    private void signalDefinitionChanged(String definition) {
+        if (WakeSignals.hasListeners()) {
+            WakeSignals.fire(WakeSignals.definitionSignal(this, definition));
+        }
     }
 
     /**
@@ -326,6 +392,7 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
      */
     @Override
     public Map<String, ObjectTag> getAllDefinitions() {
+        ownedDefinitionLists = null;
         return definitions;
     }
 
@@ -351,6 +418,87 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
     public void clear() {
         was_cleared = true;
         script_entries.clear();
+        loopFrames.clear();
+    }
+
+    /**
+     * Tracks a loop (FOREACH, WHILE, REPEAT) whose body is currently queued, ending with the loop's callback entry.
+     */
+    public static class LoopFrame {
+
+        public String command;
+
+        public ScriptEntry callback;
+
+        /**
+         * How many queue entries come after the callback. Entries are only ever added or removed at the front of the queue
+         * while the loop runs, so this stays the same and gives the callback's position without searching for it.
+         */
+        public int entriesAfter;
+    }
+
+    /**
+     * The loops currently running in this queue, innermost last.
+     */
+    public final List<LoopFrame> loopFrames = new ArrayList<>();
+
+    /**
+     * Injects a loop body (which must end with the loop's callback entry) at the front of the queue, and tracks it as the innermost loop.
+     */
+    public void enterLoop(String command, List<ScriptEntry> body) {
+        injectEntries(body, 0);
+        LoopFrame frame = new LoopFrame();
+        frame.command = command;
+        frame.callback = body.get(body.size() - 1);
+        frame.entriesAfter = script_entries.size() - body.size();
+        loopFrames.add(frame);
+    }
+
+    /**
+     * Stops tracking the loop for the given callback entry (and any loops inside it), when the callback is reached.
+     */
+    public void exitLoop(ScriptEntry callback) {
+        for (int i = loopFrames.size() - 1; i >= 0; i--) {
+            if (loopFrames.get(i).callback == callback) {
+                loopFrames.subList(i, loopFrames.size()).clear();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the current iteration of the innermost loop of the given type (and any loops inside it).
+     * If 'stop' is true, the loop's callback is removed as well, ending the loop.
+     * Otherwise, the callback is left at the front of the queue, to run the next iteration.
+     *
+     * @return false if not in a loop of that type.
+     */
+    public boolean breakLoop(String command, boolean stop) {
+        for (int i = loopFrames.size() - 1; i >= 0; i--) {
+            LoopFrame frame = loopFrames.get(i);
+            if (!frame.command.equals(command)) {
+                continue;
+            }
+            int index = script_entries.size() - frame.entriesAfter - 1;
+            if (index < 0 || index >= script_entries.size() || script_entries.get(index) != frame.callback) {
+                // The queue was modified past the callback, so fall back to searching for it
+                index = -1;
+                for (int x = 0; x < script_entries.size(); x++) {
+                    if (script_entries.get(x) == frame.callback) {
+                        index = x;
+                        break;
+                    }
+                }
+                if (index == -1) {
+                    loopFrames.remove(i);
+                    continue;
+                }
+            }
+            loopFrames.subList(stop ? i : i + 1, loopFrames.size()).clear();
+            script_entries.subList(0, stop ? index + 1 : index).clear();
+            return true;
+        }
+        return false;
     }
 
 
@@ -424,6 +572,15 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
             newQueue.holdScriptEntry(entry.getKey(), entry.getValue());
         }
         newQueue.setLastEntryExecuted(getLastEntryExecuted());
+        // Carry over any loops still running, re-measuring each callback's position in the new queue's entries
+        for (LoopFrame frame : loopFrames) {
+            int index = newQueue.script_entries.lastIndexOf(frame.callback);
+            if (index == -1) {
+                continue;
+            }
+            frame.entriesAfter = newQueue.script_entries.size() - index - 1;
+            newQueue.loopFrames.add(frame);
+        }
         clear();
         if (delay != null) {
             newQueue.delayFor(delay);
@@ -522,12 +679,18 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
                 runMeNow();
             }
             else {
-                AsyncSchedulable.executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        runMeNow();
-                    }
-                });
+                try {
+                    AsyncSchedulable.executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            runMeNow();
+                        }
+                    });
+                }
+                catch (RejectedExecutionException ex) {
+                    Debug.echoError(this, "Can't start async queue '" + debugId + "', as the async executor is shut down or has too much work queued.");
+                    stop();
+                }
             }
         }
     }
@@ -594,6 +757,38 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
 
     public boolean is_stopping = false;
 
+    /**
+     * Clears a finished queue back to the state of a newly created one, so that it can be filled and started again.
+     * Used to run the same script many times in a row (such as a sort comparison procedure) without building a new queue for each run.
+     * The queue keeps its ID (and counts only once in the queue stats), as the runs are all part of one operation.
+     * Otherwise, only settings given at construction (async and the debug output) are kept.
+     *
+     * @return false if the queue is still running, and so can't be reset.
+     */
+    public boolean reset() {
+        if (is_started) {
+            return false;
+        }
+        script_entries.clear();
+        loopFrames.clear();
+        definitions.clear();
+        ownedDefinitionLists = null;
+        held_entries.clear();
+        determinations = null;
+        lastEntryExecuted = null;
+        replacementQueue = null;
+        breakMe = null;
+        callback = null;
+        contextSource = null;
+        cachedContext = null;
+        delay_time = 0;
+        script = null;
+        was_cleared = false;
+        is_stopping = false;
+        hasInjectedItems = false;
+        return true;
+    }
+
 
     public void stop() {
 
@@ -727,6 +922,13 @@ public abstract class ScriptQueue implements Debuggable, DefinitionProvider {
     }
 
 
+    /**
+     * Removes the first 'count' entries from the queue, all at once.
+     */
+    public void removeFirstEntries(int count) {
+        script_entries.subList(0, Math.min(count, script_entries.size())).clear();
+    }
+
     public ScriptEntry getEntry(int position) {
         if (script_entries.size() < position) {
             return null;
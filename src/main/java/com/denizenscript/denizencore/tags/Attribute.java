@@ -6,6 +6,7 @@ import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -19,6 +20,16 @@ public class Attribute {
 
         public final String context;
 
+        /**
+         * How this part last resolved on an object type, to skip the lookups next time it runs on the same type.
+         */
+        public ObjectTagProcessor.CachedResolution<?> resolvedTag = null;
+
+        /**
+         * How this part last resolved as a sub-tag of a tag base (see TagBaseProcessor).
+         */
+        public TagBaseProcessor.CachedLookup resolvedBaseTag = null;
+
         public AttributeComponent(String inp) {
             if (inp.endsWith("]") && inp.contains("[")) {
                 int ind = inp.indexOf('[');
@@ -32,12 +43,19 @@ public class Attribute {
             key = CoreUtilities.toLowerCase(rawKey);
         }
 
+        private String fullString = null;
+
         @Override
         public String toString() {
-            if (context != null) {
-                return key + "[" + context + "]";
+            if (context == null) {
+                return key;
             }
-            return key;
+            String result = fullString;
+            if (result == null) {
+                result = key + "[" + context + "]";
+                fullString = result;
+            }
+            return result;
         }
     }
 
@@ -64,7 +82,7 @@ public class Attribute {
 
         for (int x = 0; x < attrInp.length; x++) {
 
-            Character chr = attrInp[x];
+            char chr = attrInp[x];
 
             if (chr == '[') {
                 braced++;
@@ -176,14 +194,26 @@ public class Attribute {
             if (Debug.verbose) {
                 Debug.log("Trying tag startsWith " + string + " on tag " + raw_tag);
             }
-            List<String> tmp = CoreUtilities.split(string, '.');
-            if (tmp.size() + fulfilled > attributes.length) {
-                return false;
-            }
-            for (int i = 0; i < tmp.size(); i++) {
-                if (!attributes[fulfilled + i].key.equals(tmp.get(i))) {
+            // Compare each dotted part in place, rather than splitting the input
+            int part = fulfilled;
+            int start = 0;
+            while (true) {
+                if (part >= attributes.length) {
+                    return false;
+                }
+                int end = string.indexOf('.', start);
+                if (end == -1) {
+                    end = string.length();
+                }
+                String key = attributes[part].key;
+                if (key.length() != end - start || !string.regionMatches(start, key, 0, key.length())) {
                     return false;
                 }
+                if (end == string.length()) {
+                    break;
+                }
+                part++;
+                start = end + 1;
             }
             seemingSuccesses.add(string);
             return true;
@@ -196,7 +226,18 @@ public class Attribute {
     }
 
     public boolean startsWith(String string, int attribute) {
-        return CoreUtilities.toLowerCase(getAttribute(attribute)).startsWith(string);
+        AttributeComponent component = getAttributeComponent(attribute);
+        if (component == null) {
+            return string.isEmpty();
+        }
+        if (string.length() <= component.key.length()) {
+            // The key is already lowercase, and leads the full attribute text
+            return component.key.startsWith(string);
+        }
+        if (component.context == null) {
+            return false;
+        }
+        return CoreUtilities.toLowerCase(component.toString()).startsWith(string);
     }
 
     int fulfilled = 0;
@@ -211,6 +252,19 @@ public class Attribute {
         return this;
     }
 
+    /**
+     * Rewinds the attribute back to its first part, as if newly built from the same text.
+     * Lets a sub-tag that is run once per item (like in ListTag.parse) reuse a single Attribute.
+     * Contexts are dropped too, so that they're re-read for each run.
+     */
+    public Attribute reset() {
+        fulfilled = 0;
+        rawtaglen = -1;
+        Arrays.fill(contexts, null);
+        resetErrorTrack();
+        return this;
+    }
+
     private void rebuild_raw_tag() {
         if (attributes.length == 0) {
             raw_tag = "";
@@ -307,6 +361,14 @@ public class Attribute {
         return attributes[num].toString();
     }
 
+    public AttributeComponent getAttributeComponent(int num) {
+        num += fulfilled - 1;
+        if (num < 0 || num >= attributes.length) {
+            return null;
+        }
+        return attributes[num];
+    }
+
     public String getAttributeWithoutContext(int num) {
         num += fulfilled - 1;
         if (num < 0 || num >= attributes.length) {
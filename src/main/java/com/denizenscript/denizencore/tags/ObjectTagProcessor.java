@@ -1,6 +1,7 @@
 package com.denizenscript.denizencore.tags;
 
 import com.denizenscript.denizencore.objects.ObjectTag;
+import com.denizenscript.denizencore.objects.properties.PropertyParser;
 import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.debugging.Debug;
 
@@ -8,9 +9,36 @@ import java.util.HashMap;
 
 public class ObjectTagProcessor<T extends ObjectTag> {
 
+    /**
+     * How an attribute resolved on one object type: the registered tag (or null if there is none, in which case the
+     * attribute falls through to properties, special processing and then the next type down), and whether properties could handle it.
+     * Kept on the attribute part itself, so a tag run many times on the same type only looks itself up once.
+     */
+    public static final class CachedResolution<T extends ObjectTag> {
+
+        final int version;
+
+        final ObjectTagProcessor<T> processor;
+
+        final Class<? extends ObjectTag> objectClass;
+
+        final TagRunnable.ObjectForm<T> runnable;
+
+        final boolean mayHaveProperty;
+
+        CachedResolution(ObjectTagProcessor<T> processor, Class<? extends ObjectTag> objectClass, String attrLow) {
+            version = TagManager.dispatchVersion;
+            this.processor = processor;
+            this.objectClass = objectClass;
+            runnable = processor.registeredObjectTags.get(attrLow);
+            mayHaveProperty = PropertyParser.mayHaveTagProperty(objectClass, attrLow);
+        }
+    }
+
     public HashMap<String, TagRunnable.ObjectForm<T>> registeredObjectTags = new HashMap<>();
 
     public void registerTag(String name, TagRunnable.ObjectForm<T> runnable) {
+        TagManager.dispatchVersion++;
         if (runnable.name == null) {
             runnable.name = name;
         }
@@ -42,9 +70,17 @@ public class ObjectTagProcessor<T extends ObjectTag> {
             }
             return object;
         }
-        String attrLow = attribute.getAttributeWithoutContext(1);
+        Attribute.AttributeComponent component = attribute.getAttributeComponent(1);
+        Class<? extends ObjectTag> objectClass = object.getObjectTagClass();
+        // The cached resolution is only used when its processor is this one, so its type is always T
+        @SuppressWarnings("unchecked")
+        CachedResolution<T> resolution = (CachedResolution<T>) component.resolvedTag;
+        if (resolution == null || resolution.processor != this || resolution.objectClass != objectClass || resolution.version != TagManager.dispatchVersion) {
+            resolution = new CachedResolution<>(this, objectClass, component.key);
+            component.resolvedTag = resolution;
+        }
         ObjectTag returned;
-        TagRunnable.ObjectForm<T> otr = registeredObjectTags.get(attrLow);
+        TagRunnable.ObjectForm<T> otr = resolution.runnable;
         if (otr != null) {
             attribute.seemingSuccesses.add(otr.name);
             returned = otr.run(attribute, object);
@@ -53,7 +89,7 @@ public class ObjectTagProcessor<T extends ObjectTag> {
             }
             return returned.getObjectAttribute(attribute.fulfill(1));
         }
-        returned = CoreUtilities.autoPropertyTagObject(object, attribute);
+        returned = resolution.mayHaveProperty ? CoreUtilities.autoPropertyTagObject(object, attribute) : null;
         if (returned == null) {
             returned = object.specialTagProcessing(attribute);
         }
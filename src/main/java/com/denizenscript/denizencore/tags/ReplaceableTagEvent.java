@@ -49,6 +49,11 @@ public class ReplaceableTagEvent {
         public String rawTag = null;
 
         public String value = null;
+
+        /**
+         * The tag's root handler or object type, worked out on first use (see TagManager.getRootDispatch).
+         */
+        public TagManager.RootDispatch rootDispatch = null;
     }
 
     public ReferenceData mainRef = null;
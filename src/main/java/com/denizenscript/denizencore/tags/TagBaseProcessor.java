@@ -0,0 +1,117 @@
+package com.denizenscript.denizencore.tags;
+
+import com.denizenscript.denizencore.objects.ObjectTag;
+import com.denizenscript.denizencore.utilities.CoreUtilities;
+
+import java.util.HashMap;
+
+/**
+ * Looks up the sub-tags of a tag base (like the 'pi' in '<util.pi>') in a map, the same way ObjectTagProcessor does for object tags,
+ * rather than checking each possible name in turn.
+ * Sub-tags with sub-tags of their own (like '<util.date.time.hour>') are registered as groups, each with its own processor.
+ */
+public class TagBaseProcessor {
+
+    /**
+     * What a sub-tag name resolved to in one processor: a registered sub-tag and/or group, or neither.
+     * Kept on the attribute part itself (like ObjectTagProcessor.CachedResolution), so a tag run many times only looks itself up once.
+     */
+    public static final class CachedLookup {
+
+        final int version;
+
+        final TagBaseProcessor processor;
+
+        final TagRunnable.BaseForm runnable;
+
+        final TagBaseProcessor group;
+
+        CachedLookup(TagBaseProcessor processor, String name) {
+            version = TagManager.dispatchVersion;
+            this.processor = processor;
+            runnable = processor.registeredSubTags.get(name);
+            group = processor.registeredGroups.get(name);
+        }
+    }
+
+    public HashMap<String, TagRunnable.BaseForm> registeredSubTags = new HashMap<>();
+
+    public HashMap<String, TagBaseProcessor> registeredGroups = new HashMap<>();
+
+    /**
+     * Used when none of the registered names match, if not null. The result isn't advanced past the current attribute.
+     */
+    public TagRunnable.BaseForm fallback = null;
+
+    public TagBaseProcessor() {
+    }
+
+    public TagBaseProcessor(TagRunnable.BaseForm fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Registers a sub-tag. Like an object tag, the runnable returns the sub-tag's own value, and any further attributes are read from that.
+     */
+    public void registerTag(String name, TagRunnable.BaseForm runnable) {
+        TagManager.dispatchVersion++;
+        if (runnable.name == null) {
+            runnable.name = name;
+        }
+        registeredSubTags.put(name, runnable);
+    }
+
+    /**
+     * Registers and returns a processor for a group of nested sub-tags.
+     */
+    public TagBaseProcessor registerGroup(String name, TagRunnable.BaseForm fallback) {
+        TagManager.dispatchVersion++;
+        TagBaseProcessor group = new TagBaseProcessor(fallback);
+        registeredGroups.put(name, group);
+        return group;
+    }
+
+    /**
+     * Runs the sub-tag at the attribute's current position (and any attributes after it), returning the result, or null if none applies.
+     * If a registered sub-tag or group gives no result (such as when it needs context that wasn't given), the fallback is used instead.
+     */
+    public ObjectTag process(Attribute attribute) {
+        Attribute.AttributeComponent component = attribute.getAttributeComponent(1);
+        TagRunnable.BaseForm runnable = null;
+        TagBaseProcessor group = null;
+        if (component != null) {
+            CachedLookup lookup = component.resolvedBaseTag;
+            if (lookup == null || lookup.processor != this || lookup.version != TagManager.dispatchVersion) {
+                lookup = new CachedLookup(this, component.key);
+                component.resolvedBaseTag = lookup;
+            }
+            runnable = lookup.runnable;
+            group = lookup.group;
+        }
+        // Where to rewind to if a sub-tag or group fulfills some of the attribute but then gives no result
+        int position = attribute.fulfilled;
+        if (runnable != null) {
+            attribute.seemingSuccesses.add(runnable.name);
+            ObjectTag returned = runnable.run(attribute);
+            if (returned != null) {
+                return CoreUtilities.autoAttrib(returned, attribute.fulfill(1));
+            }
+            attribute.fulfilled = position;
+        }
+        if (group != null) {
+            ObjectTag returned = group.process(attribute.fulfill(1));
+            if (returned != null) {
+                return returned;
+            }
+            attribute.fulfilled = position;
+        }
+        if (fallback != null) {
+            ObjectTag returned = fallback.run(attribute);
+            if (returned == null) {
+                return null;
+            }
+            return CoreUtilities.autoAttrib(returned, attribute);
+        }
+        return null;
+    }
+}
@@ -4,6 +4,7 @@ import com.denizenscript.denizencore.objects.*;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.objects.core.ListTag;
 import com.denizenscript.denizencore.scripts.ScriptEntry;
+import com.denizenscript.denizencore.scripts.queues.ExecutionContext;
 import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.tags.core.*;
 import com.denizenscript.denizencore.utilities.CoreUtilities;
@@ -55,7 +56,64 @@ public class TagManager {
         void run(ReplaceableTagEvent event);
     }
 
+    /**
+     * Bumped whenever tag bases, object types, object tags or properties are registered,
+     * so that tag resolutions cached on parsed tags (see RootDispatch and ObjectTagProcessor.CachedResolution) are worked out again.
+     */
+    public static volatile int dispatchVersion = 0;
+
+    /**
+     * What a tag's first part resolves to: either an object type (for 'x@...' tags) or a tag base handler.
+     * Worked out once per distinct tag and kept on its ReplaceableTagEvent.ReferenceData.
+     */
+    public static class RootDispatch {
+
+        public final int version;
+
+        public final boolean isObject;
+
+        /**
+         * The lowercased object type prefix (the text before the '@'), if this is an object.
+         */
+        public final String objectType;
+
+        public final Class<? extends ObjectTag> objectClass;
+
+        public final TagRunnable.RootForm handler;
+
+        public RootDispatch(Attribute.AttributeComponent root) {
+            version = dispatchVersion;
+            int atIndex = root.rawKey.indexOf('@');
+            isObject = atIndex != -1;
+            if (isObject) {
+                objectType = CoreUtilities.toLowerCase(root.rawKey.substring(0, atIndex));
+                Class<?> fetched = ObjectFetcher.getObjectClass(objectType);
+                objectClass = fetched == null ? null : fetched.asSubclass(ObjectTag.class);
+                handler = null;
+            }
+            else {
+                objectType = null;
+                objectClass = null;
+                handler = handlers.get(root.key);
+            }
+        }
+    }
+
+    public static RootDispatch getRootDispatch(ReplaceableTagEvent event) {
+        ReplaceableTagEvent.ReferenceData ref = event.mainRef;
+        RootDispatch dispatch = ref == null ? null : ref.rootDispatch;
+        if (dispatch != null && dispatch.version == dispatchVersion) {
+            return dispatch;
+        }
+        dispatch = new RootDispatch(event.getAttributes().attributes[0]);
+        if (ref != null) {
+            ref.rootDispatch = dispatch;
+        }
+        return dispatch;
+    }
+
     public static void registerTagHandler(TagRunnable.RootForm run, String... names) {
+        dispatchVersion++;
         if (names.length == 1) {
             run.name = names[0];
             handlers.put(run.name, run);
@@ -70,14 +128,15 @@ public class TagManager {
     }
 
     public static void fireEvent(ReplaceableTagEvent event) {
+        RootDispatch dispatch = getRootDispatch(event);
         if (Debug.verbose) {
-            Debug.log("Tag fire: " + event.raw_tag + ", " + event.isInstant() + ", " + event.getAttributes().attributes[0].rawKey.contains("@") + ", " + event.hasAlternative() + "...");
+            Debug.log("Tag fire: " + event.raw_tag + ", " + event.isInstant() + ", " + dispatch.isObject + ", " + event.hasAlternative() + "...");
         }
-        if (event.getAttributes().attributes[0].rawKey.contains("@")) {
-            fetchObject(event);
+        if (dispatch.isObject) {
+            fetchObject(event, dispatch);
             return;
         }
-        TagRunnable.RootForm handler = handlers.get(event.getName());
+        TagRunnable.RootForm handler = dispatch.handler;
         if (handler != null) {
             try {
                 if (Debug.verbose) {
@@ -224,8 +283,12 @@ public class TagManager {
     }
 
     public static void fetchObject(ReplaceableTagEvent event) {
-        String object_type = CoreUtilities.toLowerCase(CoreUtilities.split(event.getAttributes().attributes[0].rawKey, '@').get(0));
-        Class object_class = ObjectFetcher.getObjectClass(object_type);
+        fetchObject(event, getRootDispatch(event));
+    }
+
+    public static void fetchObject(ReplaceableTagEvent event, RootDispatch dispatch) {
+        String object_type = dispatch.objectType;
+        Class object_class = dispatch.objectClass;
 
         if (object_class == null) {
             if (!event.hasAlternative()) {
@@ -272,24 +335,25 @@ public class TagManager {
         }
     }
 
-    public static boolean isInTag = false;
-
     public static void executeWithTimeLimit(final ReplaceableTagEvent event, int seconds) {
 
         ExecutorService executor = Executors.newFixedThreadPool(4);
+        final ScriptQueue callerQueue = ExecutionContext.current().currentQueue;
 
         Future<?> future = executor.submit(new Runnable() {
             @Override
             public void run() {
+                ExecutionContext context = ExecutionContext.current();
+                context.currentQueue = callerQueue;
                 try {
                     DenizenCore.getImplementation().preTagExecute();
-                    if (isInTag) {
+                    if (context.isInTag) {
                         fireEvent(event);
                     }
                     else {
-                        isInTag = true;
+                        context.isInTag = true;
                         fireEvent(event);
-                        isInTag = false;
+                        context.isInTag = false;
                     }
                 }
                 finally {
@@ -339,7 +403,7 @@ public class TagManager {
         if (Debug.verbose) {
             Debug.log("Tag read: " + event.raw_tag + ", " + event.isInstant() + ", " + tT + "...");
         }
-        if (tT <= 0 || isInTag || (!DenizenCore.getImplementation().shouldDebug(context) && !DenizenCore.getImplementation().tagTimeoutWhenSilent())) {
+        if (tT <= 0 || ExecutionContext.current().isInTag || (!DenizenCore.getImplementation().shouldDebug(context) && !DenizenCore.getImplementation().tagTimeoutWhenSilent())) {
             fireEvent(event);
         }
         else {
@@ -23,6 +23,27 @@ public abstract class TagRunnable implements Cloneable {
         public abstract ObjectTag run(Attribute attribute, T object);
     }
 
+    /**
+     * A sub-tag of a tag base, like the 'pi' in '<util.pi>'. See TagBaseProcessor.
+     */
+    public static abstract class BaseForm implements Cloneable {
+
+        @Override
+        public BaseForm clone() {
+            try {
+                return (BaseForm) super.clone();
+            }
+            catch (Exception ex) {
+                Debug.echoError(ex);
+                return null;
+            }
+        }
+
+        public String name = null;
+
+        public abstract ObjectTag run(Attribute attribute);
+    }
+
     public static abstract class RootForm implements Cloneable {
 
         @Override
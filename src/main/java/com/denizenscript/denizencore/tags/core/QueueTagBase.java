@@ -1,5 +1,6 @@
 package com.denizenscript.denizencore.tags.core;
 
+import com.denizenscript.denizencore.objects.ObjectTag;
 import com.denizenscript.denizencore.objects.core.ElementTag;
 import com.denizenscript.denizencore.tags.TagRunnable;
 import com.denizenscript.denizencore.objects.core.ListTag;
@@ -7,6 +8,7 @@ import com.denizenscript.denizencore.objects.core.QueueTag;
 import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
 import com.denizenscript.denizencore.tags.Attribute;
 import com.denizenscript.denizencore.tags.ReplaceableTagEvent;
+import com.denizenscript.denizencore.tags.TagBaseProcessor;
 import com.denizenscript.denizencore.utilities.CoreUtilities;
 import com.denizenscript.denizencore.utilities.Deprecations;
 import com.denizenscript.denizencore.tags.TagManager;
@@ -20,6 +22,64 @@ public class QueueTagBase {
                 queueTag(event);
             }
         }, "queue", "q");
+        registerTags();
+    }
+
+    public static TagBaseProcessor tagProcessor = new TagBaseProcessor(new TagRunnable.BaseForm() {
+        @Override
+        public ObjectTag run(Attribute attribute) {
+            return new QueueTag(attribute.getScriptEntry().getResidingQueue());
+        }
+    });
+
+    public static void registerTags() {
+
+        // <--[tag]
+        // @attribute <queue.exists[<queue_id>]>
+        // @returns ElementTag(Boolean)
+        // @description
+        // Returns whether the specified queue exists.
+        // -->
+        tagProcessor.registerTag("exists", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                if (!attribute.hasContext(1)) {
+                    return null;
+                }
+                return new ElementTag(ScriptQueue.queueExists(attribute.getContext(1)));
+            }
+        });
+
+        // <--[tag]
+        // @attribute <queue.stats>
+        // @returns ElementTag
+        // @description
+        // Returns stats for all queues during this server session,
+        // including how many async tasks are currently running and how many are waiting for a free worker.
+        // -->
+        tagProcessor.registerTag("stats", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(ScriptQueue.getStats());
+            }
+        });
+
+        // <--[tag]
+        // @attribute <queue.list>
+        // @returns ListTag(Queue)
+        // @description
+        // Returns a list of all currently running queues on the server.
+        // -->
+        tagProcessor.registerTag("list", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                ListTag list = new ListTag();
+                for (ScriptQueue queue : ScriptQueue.getQueues()) {
+                    list.addObject(new QueueTag(queue));
+                }
+                return list;
+            }
+        });
     }
 
 
@@ -50,58 +110,11 @@ public class QueueTagBase {
             return;
         }
 
-        Attribute attribute = event.getAttributes().fulfill(1);
-
-
-        // Otherwise, try to use queue in a static manner.
-
-        // <--[tag]
-        // @attribute <queue.exists[<queue_id>]>
-        // @returns ElementTag(Boolean)
-        // @description
-        // Returns whether the specified queue exists.
-        // -->
-        if (attribute.startsWith("exists")
-                && attribute.hasContext(1)) {
-            event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(ScriptQueue.queueExists(attribute.getContext(1))),
-                    attribute.fulfill(1)));
-            return;
-        }
-
-        // <--[tag]
-        // @attribute <queue.stats>
-        // @returns ElementTag
-        // @description
-        // Returns stats for all queues during this server session
-        // -->
-        if (attribute.startsWith("stats")) {
-            event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(ScriptQueue.getStats()),
-                    attribute.fulfill(1)));
-            return;
+        // Otherwise, try to use queue in a static manner, or else use the current queue
+        ObjectTag result = tagProcessor.process(event.getAttributes().fulfill(1));
+        if (result != null) {
+            event.setReplacedObject(result);
         }
-
-        // <--[tag]
-        // @attribute <queue.list>
-        // @returns ListTag(Queue)
-        // @description
-        // Returns a list of all currently running queues on the server.
-        // -->
-        if (attribute.startsWith("list")) {
-            ListTag list = new ListTag();
-            for (ScriptQueue queue : ScriptQueue.getQueues()) {
-                list.addObject(new QueueTag(queue));
-            }
-            event.setReplacedObject(CoreUtilities.autoAttrib(list,
-                    attribute.fulfill(1)));
-            return;
-        }
-
-
-        // Else,
-        // Use current queue
-
-        event.setReplacedObject(CoreUtilities.autoAttrib(new QueueTag(event.getScriptEntry().getResidingQueue()),
-                attribute));
     }
 }
 
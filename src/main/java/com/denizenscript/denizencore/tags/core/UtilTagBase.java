@@ -11,6 +11,7 @@ import com.denizenscript.denizencore.utilities.debugging.Debug;
 import com.denizenscript.denizencore.DenizenCore;
 import com.denizenscript.denizencore.tags.Attribute;
 import com.denizenscript.denizencore.tags.ReplaceableTagEvent;
+import com.denizenscript.denizencore.tags.TagBaseProcessor;
 import com.denizenscript.denizencore.tags.TagManager;
 
 import java.text.SimpleDateFormat;
@@ -28,129 +29,129 @@ public class UtilTagBase {
                 utilTag(event);
             }
         }, "util", "u");
+        registerTags();
     }
 
-    public void utilTag(ReplaceableTagEvent event) {
-        if (!event.matches("util", "u")) {
-            return;
-        }
+    public static TagBaseProcessor tagProcessor = new TagBaseProcessor();
 
-        if (event.matches("u")) {
-            Deprecations.utilShorthand.warn(event.getScriptEntry());
-        }
-
-        Attribute attribute = event.getAttributes().fulfill(1);
-
-        if (attribute.startsWith("random")) {
+    public static void registerTags() {
 
-            attribute = attribute.fulfill(1);
+        TagBaseProcessor randomTags = tagProcessor.registerGroup("random", null);
 
-            // <--[tag]
-            // @attribute <util.random.int[<#>].to[<#>]>
-            // @returns ElementTag(Number)
-            // @description
-            // Returns a random number between the 2 specified numbers, inclusive.
-            // For example: random.int[1].to[3] could return 1, 2, or 3.
-            // -->
-            if (attribute.startsWith("int")) {
+        // <--[tag]
+        // @attribute <util.random.int[<#>].to[<#>]>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns a random number between the 2 specified numbers, inclusive.
+        // For example: random.int[1].to[3] could return 1, 2, or 3.
+        // -->
+        randomTags.registerTag("int", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                if (!attribute.hasContext(1) || !attribute.getAttributeWithoutContext(2).equals("to")) {
+                    return null;
+                }
                 String stc = attribute.getContext(1);
                 attribute = attribute.fulfill(1);
-                if (attribute.startsWith("to")) {
-                    if (ArgumentHelper.matchesInteger(stc) && ArgumentHelper.matchesInteger(attribute.getContext(1))) {
-                        int min = ArgumentHelper.getIntegerFrom(stc);
-                        int max = ArgumentHelper.getIntegerFrom(attribute.getContext(1));
-
-                        // in case the first number is larger than the second, reverse them
-                        if (min > max) {
-                            int store = min;
-                            min = max;
-                            max = store;
-                        }
-
-                        event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(
-                                        String.valueOf(CoreUtilities.getRandom().nextInt(max - min + 1) + min)),
-                                attribute.fulfill(1)));
-                    }
+                if (!ArgumentHelper.matchesInteger(stc) || !ArgumentHelper.matchesInteger(attribute.getContext(1))) {
+                    return null;
+                }
+                int min = ArgumentHelper.getIntegerFrom(stc);
+                int max = ArgumentHelper.getIntegerFrom(attribute.getContext(1));
+
+                // in case the first number is larger than the second, reverse them
+                if (min > max) {
+                    int store = min;
+                    min = max;
+                    max = store;
                 }
+
+                return new ElementTag(String.valueOf(CoreUtilities.getRandom().nextInt(max - min + 1) + min));
             }
+        });
+
+        // <--[tag]
+        // @attribute <util.random.decimal[<#>].to[<#>]>
+        // @returns ElementTag(Decimal)
+        // @description
+        // Returns a random number between the 2 specified numbers, inclusive.
+        // For example: random.decimal[1].to[2] could return 1.5, 1.75, or a massive number of other options.
+        // -->
 
-            // <--[tag]
-            // @attribute <util.random.decimal[<#>].to[<#>]>
-            // @returns ElementTag(Decimal)
-            // @description
-            // Returns a random number between the 2 specified numbers, inclusive.
-            // For example: random.decimal[1].to[2] could return 1.5, 1.75, or a massive number of other options.
-            // -->
-            if (attribute.startsWith("decimal")
-                    && attribute.hasContext(1)) {
+        // <--[tag]
+        // @attribute <util.random.decimal>
+        // @returns ElementTag
+        // @description
+        // Returns a random decimal number from 0 to 1
+        // -->
+        randomTags.registerTag("decimal", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                if (!attribute.hasContext(1)) {
+                    return new ElementTag(CoreUtilities.getRandom().nextDouble());
+                }
+                if (!attribute.getAttributeWithoutContext(2).equals("to")) {
+                    return null;
+                }
                 String stc = attribute.getContext(1);
                 attribute = attribute.fulfill(1);
-                if (attribute.startsWith("to")) {
-                    if (ArgumentHelper.matchesDouble(stc) && ArgumentHelper.matchesDouble(attribute.getContext(1))) {
-                        double min = ArgumentHelper.getDoubleFrom(stc);
-                        double max = ArgumentHelper.getDoubleFrom(attribute.getContext(1));
-
-                        // in case the first number is larger than the second, reverse them
-                        if (min > max) {
-                            double store = min;
-                            min = max;
-                            max = store;
-                        }
-
-                        event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(
-                                        String.valueOf(CoreUtilities.getRandom().nextDouble() * (max - min) + min)),
-                                attribute.fulfill(1)));
-                    }
+                if (!ArgumentHelper.matchesDouble(stc) || !ArgumentHelper.matchesDouble(attribute.getContext(1))) {
+                    return null;
+                }
+                double min = ArgumentHelper.getDoubleFrom(stc);
+                double max = ArgumentHelper.getDoubleFrom(attribute.getContext(1));
+
+                // in case the first number is larger than the second, reverse them
+                if (min > max) {
+                    double store = min;
+                    min = max;
+                    max = store;
                 }
-            }
 
-            // <--[tag]
-            // @attribute <util.random.decimal>
-            // @returns ElementTag
-            // @description
-            // Returns a random decimal number from 0 to 1
-            // -->
-            else if (attribute.startsWith("decimal")) {
-                event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(CoreUtilities.getRandom().nextDouble())
-                        , attribute.fulfill(1)));
+                return new ElementTag(String.valueOf(CoreUtilities.getRandom().nextDouble() * (max - min) + min));
             }
+        });
 
-            // <--[tag]
-            // @attribute <util.random.gauss>
-            // @returns ElementTag
-            // @description
-            // Returns a random decimal number with a gaussian distribution.
-            // 70% of all results will be within the range of -1 to 1.
-            // -->
-            else if (attribute.startsWith("gauss")) {
-                event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(CoreUtilities.getRandom().nextGaussian())
-                        , attribute.fulfill(1)));
+        // <--[tag]
+        // @attribute <util.random.gauss>
+        // @returns ElementTag
+        // @description
+        // Returns a random decimal number with a gaussian distribution.
+        // 70% of all results will be within the range of -1 to 1.
+        // -->
+        randomTags.registerTag("gauss", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(CoreUtilities.getRandom().nextGaussian());
             }
+        });
 
-            // <--[tag]
-            // @attribute <util.random.uuid>
-            // @returns ElementTag
-            // @description
-            // Returns a random unique ID.
-            // -->
-            else if (attribute.startsWith("uuid")) {
-                event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(UUID.randomUUID().toString())
-                        , attribute.fulfill(1)));
+        // <--[tag]
+        // @attribute <util.random.uuid>
+        // @returns ElementTag
+        // @description
+        // Returns a random unique ID.
+        // -->
+        randomTags.registerTag("uuid", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(UUID.randomUUID().toString());
             }
+        });
 
-            // <--[tag]
-            // @attribute <util.random.duuid[(<source>)]>
-            // @returns ElementTag
-            // @description
-            // Returns a random 'denizen' unique ID, which is made of a randomly generated sentence.
-            // Optionally specify the source context to base the value on.
-            // -->
-            else if (attribute.startsWith("duuid")) {
-                event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(
-                        attribute.hasContext(1) ? attribute.getContext(1) : ScriptQueue.getNextId("DUUID")),
-                        attribute.fulfill(1)));
+        // <--[tag]
+        // @attribute <util.random.duuid[(<source>)]>
+        // @returns ElementTag
+        // @description
+        // Returns a random 'denizen' unique ID, which is made of a randomly generated sentence.
+        // Optionally specify the source context to base the value on.
+        // -->
+        randomTags.registerTag("duuid", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(attribute.hasContext(1) ? attribute.getContext(1) : ScriptQueue.getNextId("DUUID"));
             }
-        }
+        });
 
         // <--[tag]
         // @attribute <util.pi>
@@ -158,10 +159,12 @@ public class UtilTagBase {
         // @description
         // Returns PI: 3.14159265358979323846
         // -->
-        else if (attribute.startsWith("pi")) {
-            event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(Math.PI)
-                    , attribute.fulfill(1)));
-        }
+        tagProcessor.registerTag("pi", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(Math.PI);
+            }
+        });
 
         // <--[tag]
         // @attribute <util.tau>
@@ -169,10 +172,12 @@ public class UtilTagBase {
         // @description
         // Returns Tau: 6.28318530717958647692
         // -->
-        else if (attribute.startsWith("tau")) {
-            event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(Math.PI * 2)
-                    , attribute.fulfill(1)));
-        }
+        tagProcessor.registerTag("tau", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(Math.PI * 2);
+            }
+        });
 
         // <--[tag]
         // @attribute <util.e>
@@ -180,10 +185,12 @@ public class UtilTagBase {
         // @description
         // Returns e: 2.7182818284590452354
         // -->
-        else if (attribute.matches("e")) {
-            event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(Math.E)
-                    , attribute.fulfill(1)));
-        }
+        tagProcessor.registerTag("e", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(Math.E);
+            }
+        });
 
         // <--[tag]
         // @attribute <util.time_at[<year>/<month>/<day> (<hour>:<minute>:<second>(:<millisecond>))]>
@@ -198,27 +205,32 @@ public class UtilTagBase {
         // Hour is hour of day, from 0 (midnight) to 23 (11 PM).
         // Be cautious with potential inconsistencies due to time zone variation.
         // -->
-        else if (attribute.matches("time_at") && attribute.hasContext(1)) {
-            String[] dateComponents = attribute.getContext(1).split(" ");
-            String[] ymd = dateComponents[0].split("/");
-            int year = Integer.parseInt(ymd[0]);
-            int month = Integer.parseInt(ymd[1]) - 1;
-            int day = Integer.parseInt(ymd[2]);
-            int hour = 0, minute = 0, second = 0, millisecond = 0;
-            if (dateComponents.length > 1) {
-                String[] hms = dateComponents[1].split(":");
-                hour = Integer.parseInt(hms[0]);
-                minute = Integer.parseInt(hms[1]);
-                second = Integer.parseInt(hms[2]);
-                if (hms.length > 3) {
-                    millisecond = Integer.parseInt(hms[3]);
+        tagProcessor.registerTag("time_at", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                if (!attribute.hasContext(1)) {
+                    return null;
+                }
+                String[] dateComponents = attribute.getContext(1).split(" ");
+                String[] ymd = dateComponents[0].split("/");
+                int year = Integer.parseInt(ymd[0]);
+                int month = Integer.parseInt(ymd[1]) - 1;
+                int day = Integer.parseInt(ymd[2]);
+                int hour = 0, minute = 0, second = 0, millisecond = 0;
+                if (dateComponents.length > 1) {
+                    String[] hms = dateComponents[1].split(":");
+                    hour = Integer.parseInt(hms[0]);
+                    minute = Integer.parseInt(hms[1]);
+                    second = Integer.parseInt(hms[2]);
+                    if (hms.length > 3) {
+                        millisecond = Integer.parseInt(hms[3]);
+                    }
                 }
+                Calendar calendar = Calendar.getInstance();
+                calendar.set(year, month, day, hour, minute, second);
+                return new DurationTag((calendar.getTimeInMillis() + millisecond) / 1000.0);
             }
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(year, month, day, hour, minute, second);
-            DurationTag result = new DurationTag((calendar.getTimeInMillis() + millisecond) / 1000.0);
-            event.setReplacedObject(result.getObjectAttribute(attribute.fulfill(1)));
-        }
+        });
 
         // <--[tag]
         // @attribute <util.date>
@@ -226,189 +238,191 @@ public class UtilTagBase {
         // @description
         // Returns the current system date.
         // -->
-        else if (attribute.startsWith("date")) {
-            Calendar calendar = Calendar.getInstance();
-            Date currentDate = new Date();
-            SimpleDateFormat format = new SimpleDateFormat();
-
-            attribute = attribute.fulfill(1);
-
-            // <--[tag]
-            // @attribute <util.date.time>
-            // @returns ElementTag
-            // @description
-            // Returns the current system time.
-            // -->
-            if (attribute.startsWith("time")) {
-
-                attribute = attribute.fulfill(1);
+        TagBaseProcessor dateTags = tagProcessor.registerGroup("date", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(new SimpleDateFormat("EEE, MMM d, yyyy").format(new Date()));
+            }
+        });
 
-                // <--[tag]
-                // @attribute <util.date.time.twentyfour_hour>
-                // @returns ElementTag
-                // @description
-                // Returns the current system time in 24-hour format.
-                // -->
-                if (attribute.startsWith("twentyfour_hour")) {
-                    format.applyPattern("k:mm");
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(format.format(currentDate))
-                            , attribute.fulfill(1)));
+        // <--[tag]
+        // @attribute <util.date.format[<format>]>
+        // @returns ElementTag
+        // @description
+        // Returns the current system time, formatted as specified
+        // Example format: [EEE, MMM d, yyyy K:mm a] will become "Mon, Jan 1, 2112 0:01 AM"
+        // -->
+        dateTags.registerTag("format", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                if (!attribute.hasContext(1)) {
+                    return null;
                 }
-                // <--[tag]
-                // @attribute <util.date.time.year>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current year of the system time.
-                // -->
-                else if (attribute.startsWith("year")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.YEAR))
-                            , attribute.fulfill(1)));
+                try {
+                    return new ElementTag(new SimpleDateFormat(attribute.getContext(1)).format(new Date()));
                 }
-
-                // <--[tag]
-                // @attribute <util.date.time.month>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current month of the system time.
-                // -->
-                else if (attribute.startsWith("month")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.MONTH) + 1)
-                            , attribute.fulfill(1)));
+                catch (Exception ex) {
+                    Debug.echoError("Error: invalid pattern '" + attribute.getContext(1) + "'");
+                    Debug.echoError(ex);
+                    return null;
                 }
+            }
+        });
 
-                // <--[tag]
-                // @attribute <util.date.time.week>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current week of the system time.
-                // -->
-                else if (attribute.startsWith("week")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.WEEK_OF_YEAR))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time>
+        // @returns ElementTag
+        // @description
+        // Returns the current system time.
+        // -->
+        TagBaseProcessor timeTags = dateTags.registerGroup("time", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(new SimpleDateFormat("K:mm a").format(new Date()));
+            }
+        });
 
-                // <--[tag]
-                // @attribute <util.date.time.day_of_week>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current day-of-the-week of the system time.
-                // -->
-                else if (attribute.startsWith("day_of_week")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.DAY_OF_WEEK))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.twentyfour_hour>
+        // @returns ElementTag
+        // @description
+        // Returns the current system time in 24-hour format.
+        // -->
+        timeTags.registerTag("twentyfour_hour", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(new SimpleDateFormat("k:mm").format(new Date()));
+            }
+        });
 
-                // <--[tag]
-                // @attribute <util.date.time.day>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current day of the system time.
-                // -->
-                else if (attribute.startsWith("day")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.DAY_OF_MONTH))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.year>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current year of the system time.
+        // -->
+        registerCalendarTag(timeTags, "year", Calendar.YEAR, 0);
 
-                // <--[tag]
-                // @attribute <util.date.time.hour>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current hour of the system time.
-                // -->
-                else if (attribute.startsWith("hour")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.HOUR_OF_DAY))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.month>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current month of the system time.
+        // -->
+        registerCalendarTag(timeTags, "month", Calendar.MONTH, 1);
 
-                // <--[tag]
-                // @attribute <util.date.time.minute>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current minute of the system time.
-                // -->
-                else if (attribute.startsWith("minute")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.MINUTE))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.week>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current week of the system time.
+        // -->
+        registerCalendarTag(timeTags, "week", Calendar.WEEK_OF_YEAR, 0);
 
-                // <--[tag]
-                // @attribute <util.date.time.second>
-                // @returns ElementTag(Number)
-                // @description
-                // Returns the current second of the system time.
-                // -->
-                else if (attribute.startsWith("second")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(calendar.get(Calendar.SECOND))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.day_of_week>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current day-of-the-week of the system time.
+        // -->
+        registerCalendarTag(timeTags, "day_of_week", Calendar.DAY_OF_WEEK, 0);
 
-                // <--[tag]
-                // @attribute <util.date.time.duration>
-                // @returns DurationTag
-                // @description
-                // Returns the current system time as a duration.
-                // To get the exact millisecond count, use <@link tag server.current_time_millis>.
-                // -->
-                else if (attribute.startsWith("duration")) {
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new DurationTag(System.currentTimeMillis() / 50)
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.day>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current day of the system time.
+        // -->
+        registerCalendarTag(timeTags, "day", Calendar.DAY_OF_MONTH, 0);
 
-                // <--[tag]
-                // @attribute <util.date.time.zone>
-                // @returns ElementTag
-                // @description
-                // Returns the abbreviated timezone of the server.
-                // -->
-                else if (attribute.startsWith("zone")) {
-                    TimeZone tz = Calendar.getInstance().getTimeZone();
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(tz.getDisplayName(tz.inDaylightTime(currentDate), TimeZone.SHORT))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.hour>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current hour of the system time.
+        // -->
+        registerCalendarTag(timeTags, "hour", Calendar.HOUR_OF_DAY, 0);
 
-                // <--[tag]
-                // @attribute <util.date.time.formatted_zone>
-                // @returns ElementTag
-                // @description
-                // Returns the timezone of the server.
-                // -->
-                else if (attribute.startsWith("formatted_zone")) {
-                    TimeZone tz = Calendar.getInstance().getTimeZone();
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(tz.getDisplayName(tz.inDaylightTime(currentDate), TimeZone.LONG))
-                            , attribute.fulfill(1)));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.minute>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current minute of the system time.
+        // -->
+        registerCalendarTag(timeTags, "minute", Calendar.MINUTE, 0);
 
-                else {
-                    format.applyPattern("K:mm a");
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(format.format(currentDate))
-                            , attribute));
-                }
+        // <--[tag]
+        // @attribute <util.date.time.second>
+        // @returns ElementTag(Number)
+        // @description
+        // Returns the current second of the system time.
+        // -->
+        registerCalendarTag(timeTags, "second", Calendar.SECOND, 0);
 
+        // <--[tag]
+        // @attribute <util.date.time.duration>
+        // @returns DurationTag
+        // @description
+        // Returns the current system time as a duration.
+        // To get the exact millisecond count, use <@link tag server.current_time_millis>.
+        // -->
+        timeTags.registerTag("duration", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new DurationTag(System.currentTimeMillis() / 50);
             }
+        });
 
-            // <--[tag]
-            // @attribute <util.date.format[<format>]>
-            // @returns ElementTag
-            // @description
-            // Returns the current system time, formatted as specified
-            // Example format: [EEE, MMM d, yyyy K:mm a] will become "Mon, Jan 1, 2112 0:01 AM"
-            // -->
-            else if (attribute.startsWith("format")
-                    && attribute.hasContext(1)) {
-                try {
-                    format.applyPattern(attribute.getContext(1));
-                    event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(format.format(currentDate)), attribute.fulfill(1)));
-                }
-                catch (Exception ex) {
-                    Debug.echoError("Error: invalid pattern '" + attribute.getContext(1) + "'");
-                    Debug.echoError(ex);
-                }
+        // <--[tag]
+        // @attribute <util.date.time.zone>
+        // @returns ElementTag
+        // @description
+        // Returns the abbreviated timezone of the server.
+        // -->
+        timeTags.registerTag("zone", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                TimeZone tz = Calendar.getInstance().getTimeZone();
+                return new ElementTag(tz.getDisplayName(tz.inDaylightTime(new Date()), TimeZone.SHORT));
             }
-            else {
-                format.applyPattern("EEE, MMM d, yyyy");
-                event.setReplacedObject(CoreUtilities.autoAttrib(new ElementTag(format.format(currentDate))
-                        , attribute));
+        });
+
+        // <--[tag]
+        // @attribute <util.date.time.formatted_zone>
+        // @returns ElementTag
+        // @description
+        // Returns the timezone of the server.
+        // -->
+        timeTags.registerTag("formatted_zone", new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                TimeZone tz = Calendar.getInstance().getTimeZone();
+                return new ElementTag(tz.getDisplayName(tz.inDaylightTime(new Date()), TimeZone.LONG));
             }
+        });
+    }
+
+    private static void registerCalendarTag(TagBaseProcessor processor, String name, final int field, final int offset) {
+        processor.registerTag(name, new TagRunnable.BaseForm() {
+            @Override
+            public ObjectTag run(Attribute attribute) {
+                return new ElementTag(Calendar.getInstance().get(field) + offset);
+            }
+        });
+    }
+
+    public void utilTag(ReplaceableTagEvent event) {
+        if (!event.matches("util", "u")) {
+            return;
+        }
+
+        if (event.matches("u")) {
+            Deprecations.utilShorthand.warn(event.getScriptEntry());
+        }
+
+        ObjectTag result = tagProcessor.process(event.getAttributes().fulfill(1));
+        if (result != null) {
+            event.setReplacedObject(result);
         }
     }
 
@@ -29,7 +29,13 @@ public class CoreUtilities {
 
     public static ObjectTag fixType(ObjectTag input, TagContext context) {
         if (input instanceof ElementTag) {
-            return ObjectFetcher.pickObjectFor(input.toString(), context);
+            ElementTag element = (ElementTag) input;
+            Class<? extends ObjectTag> type = element.getFixedType();
+            if (type == null) {
+                return element;
+            }
+            ObjectTag fetched = ObjectFetcher.getObjectFrom(type, element.asString(), context);
+            return fetched != null ? fetched : element;
         }
         return input;
     }
@@ -46,12 +52,14 @@ public class CoreUtilities {
                 return;
             }
             prop.adjust(mechanism);
+            PropertyParser.invalidatePropertiesString(object);
             return;
         }
         for (PropertyParser.PropertyGetter listGetter : properties.propertiesAnyMechs) {
             Property prop = listGetter.get(object);
             if (prop != null) {
                 prop.adjust(mechanism);
+                PropertyParser.invalidatePropertiesString(object);
                 if (mechanism.fulfilled()) {
                     return;
                 }
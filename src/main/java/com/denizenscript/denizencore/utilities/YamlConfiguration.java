@@ -259,6 +259,22 @@ public class YamlConfiguration {
         return (List<Object>) o;
     }
 
+    /**
+     * Returns the list stored at the path, for modification in place.
+     * If no list is present at the path, an empty one is created and stored there.
+     * Changes to the returned list are changes to this configuration.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> getOrCreateList(String path) {
+        Object o = get(path);
+        if (o instanceof List) {
+            return (List<Object>) o;
+        }
+        List<Object> list = new ArrayList<>();
+        set(path, list);
+        return list;
+    }
+
     public List<String> getStringList(String path) {
         Object o = get(path);
         if (o == null) {
@@ -1,6 +1,7 @@
 package com.denizenscript.denizencore.utilities.data;
 
 import com.denizenscript.denizencore.objects.ObjectTag;
+import com.denizenscript.denizencore.objects.core.ListTag;
 
 public abstract class ActionableDataProvider {
 
@@ -16,4 +17,22 @@ public abstract class ActionableDataProvider {
      * null indicates to remove the key.
      */
     public abstract void setValueAt(String keyName, ObjectTag value);
+
+    /**
+     * Return the list object stored at a key, to be modified in place by list actions.
+     * Only return a list here if that exact object is owned by this provider and not shared elsewhere.
+     * Returning null (the default) makes list actions copy the list and set the copy back with setOwnedListAt.
+     */
+    public ListTag getMutableListAt(String keyName) {
+        return null;
+    }
+
+    /**
+     * Set a list to a key, after a list action has edited it.
+     * The list is either the one returned by getMutableListAt or a new copy, so it is not referenced anywhere else,
+     * and a provider may hand it back from getMutableListAt until it is shared.
+     */
+    public void setOwnedListAt(String keyName, ListTag list) {
+        setValueAt(keyName, list);
+    }
 }
@@ -43,6 +43,23 @@ public class DataAction {
         return new ListTag(list);
     }
 
+    /**
+     * Returns the list at the key, to be modified by a list action.
+     * This is the stored list itself when the provider allows it, otherwise a copy.
+     * Either way, the list must be passed to autoListEdited once modified.
+     */
+    public ListTag autoListForEdit() {
+        ListTag list = provider.getMutableListAt(key);
+        if (list != null) {
+            return list;
+        }
+        return autoList(key);
+    }
+
+    public void autoListEdited(ListTag list) {
+        provider.setOwnedListAt(key, list);
+    }
+
     public ObjectTag autoDup(ObjectTag object) {
         if (object == null) {
             return null;
@@ -142,13 +159,13 @@ public class DataAction {
             }
             case INSERT: {
                 requiresInputValue();
-                ListTag list = autoList(key);
+                ListTag list = autoListForEdit();
                 list.addObject(inputValue);
-                provider.setValueAt(key, list);
+                autoListEdited(list);
                 break;
             }
             case REMOVE: {
-                ListTag list = autoList(key);
+                ListTag list = autoListForEdit();
                 if (index != 0) {
                     list.remove(index - 1);
                 }
@@ -160,14 +177,14 @@ public class DataAction {
                         break;
                     }
                 }
-                provider.setValueAt(key, list);
+                autoListEdited(list);
                 break;
             }
             case SPLIT: {
                 requiresInputValue();
-                ListTag list = autoList(key);
+                ListTag list = autoListForEdit();
                 list.addObjects(ListTag.getListFor(inputValue).objectForms);
-                provider.setValueAt(key, list);
+                autoListEdited(list);
                 break;
             }
             case SPLIT_NEW:
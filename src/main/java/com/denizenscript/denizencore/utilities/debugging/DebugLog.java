@@ -2,7 +2,6 @@ package com.denizenscript.denizencore.utilities.debugging;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.text.SimpleDateFormat;
 import java.util.logging.*;
 
 public class DebugLog extends Logger {
@@ -31,13 +30,11 @@ public class DebugLog extends Logger {
     }
 
     private static class DebugFormatter extends Formatter {
-        private final SimpleDateFormat date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss ");
-
         @Override
         public String format(LogRecord rec) {
             Throwable exception = rec.getThrown();
 
-            String out = this.date.format(rec.getMillis());
+            String out = LogFileWriter.formatTimestamp(rec.getMillis());
 
             out += "[" + rec.getLevel().getName().toUpperCase() + "] ";
             out += rec.getMessage() + '\n';
@@ -0,0 +1,317 @@
+package com.denizenscript.denizencore.utilities.debugging;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes log lines to files from a single background thread.
+ * Each target file keeps one open buffered writer, which is flushed periodically, closed once it's gone unused for a while,
+ * and optionally rotated once it grows past a size limit.
+ * Lines are queued in a bounded queue: if the writer falls too far behind, callers wait for room rather than using unbounded memory.
+ */
+public class LogFileWriter {
+
+    /**
+     * How often open files are flushed to disk.
+     */
+    public static long flushIntervalMillis = 1000;
+
+    /**
+     * How long a file may go without new lines before it is closed.
+     */
+    public static long idleCloseMillis = 60 * 1000;
+
+    /**
+     * Files larger than this are rotated before writing more to them. Zero or less disables rotation.
+     */
+    public static long rotateSize = 0;
+
+    /**
+     * How many rotated files are kept (as 'name.1', 'name.2', ...), with the oldest removed beyond this.
+     */
+    public static int rotateBackups = 5;
+
+    public static int queueCapacity = 8192;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss ").withZone(ZoneId.systemDefault());
+
+    private static final class CachedTimestamp {
+
+        final long second;
+
+        final String text;
+
+        CachedTimestamp(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+    private static volatile CachedTimestamp lastTimestamp = new CachedTimestamp(-1, "");
+
+    /**
+     * Formats a time as "yyyy-MM-dd HH:mm:ss " (with trailing space). Safe to call from any thread.
+     * The text for the most recent second is cached, as most log lines share the same second as the one before.
+     */
+    public static String formatTimestamp(long millis) {
+        long second = Math.floorDiv(millis, 1000);
+        CachedTimestamp cached = lastTimestamp;
+        if (cached.second == second) {
+            return cached.text;
+        }
+        String text = TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(millis));
+        lastTimestamp = new CachedTimestamp(second, text);
+        return text;
+    }
+
+    private static final class LogEntry {
+
+        final File file;
+
+        final String text;
+
+        final boolean clear;
+
+        LogEntry(File file, String text, boolean clear) {
+            this.file = file;
+            this.text = text;
+            this.clear = clear;
+        }
+    }
+
+    private static final class OpenFile {
+
+        Writer writer;
+
+        long size;
+
+        long lastUsed;
+    }
+
+    /**
+     * Guards queue and thread. Lines are queued under the read lock, so shutdown (under the write lock)
+     * knows that no more lines can reach the old queue once it has stopped accepting them.
+     */
+    private static final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private static BlockingQueue<LogEntry> queue;
+
+    /**
+     * The running writer thread, or null if lines aren't currently being accepted.
+     */
+    private static Thread thread;
+
+    /**
+     * Appends the text to the file.
+     */
+    public static void append(File file, String text) {
+        enqueue(new LogEntry(file.getAbsoluteFile(), text, false));
+    }
+
+    /**
+     * Replaces the file's contents with the text.
+     */
+    public static void replace(File file, String text) {
+        enqueue(new LogEntry(file.getAbsoluteFile(), text, true));
+    }
+
+    /**
+     * Appends a line in the standard log format: a timestamp, the level name in brackets, then the message.
+     */
+    public static void appendLine(File file, String level, String message) {
+        append(file, formatTimestamp(System.currentTimeMillis()) + "[" + level + "] " + message + "\n");
+    }
+
+    private static void enqueue(LogEntry entry) {
+        while (true) {
+            stateLock.readLock().lock();
+            try {
+                if (thread != null) {
+                    queue.put(entry);
+                    return;
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                stateLock.readLock().unlock();
+            }
+            stateLock.writeLock().lock();
+            try {
+                if (thread == null) {
+                    final BlockingQueue<LogEntry> newQueue = new ArrayBlockingQueue<>(queueCapacity);
+                    queue = newQueue;
+                    thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            writeLoop(newQueue);
+                        }
+                    }, "Denizen Log Writer");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+            finally {
+                stateLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes out everything queued so far, closes all files, and stops the writer thread.
+     * The writer will start up again if more lines are logged afterward.
+     */
+    public static void shutdown() {
+        Thread toStop;
+        // Waits for any line being queued to finish, then stops accepting lines, so the final drain can't miss any
+        stateLock.writeLock().lock();
+        try {
+            toStop = thread;
+            if (toStop == null) {
+                return;
+            }
+            thread = null;
+        }
+        finally {
+            stateLock.writeLock().unlock();
+        }
+        toStop.interrupt();
+        try {
+            toStop.join(10 * 1000);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeLoop(BlockingQueue<LogEntry> myQueue) {
+        Map<File, OpenFile> openFiles = new HashMap<>();
+        long lastFlush = System.currentTimeMillis();
+        try {
+            while (true) {
+                LogEntry entry = myQueue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    write(openFiles, entry);
+                }
+                long now = System.currentTimeMillis();
+                if (entry == null || now - lastFlush >= flushIntervalMillis) {
+                    flushAll(openFiles, now);
+                    lastFlush = now;
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            // Shutting down
+        }
+        LogEntry entry;
+        while ((entry = myQueue.poll()) != null) {
+            write(openFiles, entry);
+        }
+        for (OpenFile file : openFiles.values()) {
+            closeQuietly(file.writer);
+        }
+        openFiles.clear();
+    }
+
+    private static void write(Map<File, OpenFile> openFiles, LogEntry entry) {
+        try {
+            OpenFile open = openFiles.get(entry.file);
+            if (entry.clear && open != null) {
+                closeQuietly(open.writer);
+                openFiles.remove(entry.file);
+                open = null;
+            }
+            if (open != null && rotateSize > 0 && open.size + entry.text.length() > rotateSize) {
+                closeQuietly(open.writer);
+                openFiles.remove(entry.file);
+                rotate(entry.file);
+                open = null;
+            }
+            if (open == null) {
+                File parent = entry.file.getParentFile();
+                if (parent != null) {
+                    parent.mkdirs();
+                }
+                if (!entry.clear && rotateSize > 0 && entry.file.length() + entry.text.length() > rotateSize) {
+                    rotate(entry.file);
+                }
+                open = new OpenFile();
+                open.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(entry.file, !entry.clear), StandardCharsets.UTF_8));
+                open.size = entry.clear ? 0 : entry.file.length();
+                openFiles.put(entry.file, open);
+            }
+            open.writer.write(entry.text);
+            open.size += entry.text.length();
+            open.lastUsed = System.currentTimeMillis();
+        }
+        catch (IOException ex) {
+            reportError("Error logging to file '" + entry.file + "'", ex);
+        }
+    }
+
+    private static void rotate(File file) {
+        File oldest = new File(file.getPath() + "." + rotateBackups);
+        if (oldest.exists()) {
+            oldest.delete();
+        }
+        for (int i = rotateBackups - 1; i >= 1; i--) {
+            File backup = new File(file.getPath() + "." + i);
+            if (backup.exists()) {
+                backup.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+        }
+        if (rotateBackups > 0) {
+            file.renameTo(new File(file.getPath() + ".1"));
+        }
+        else {
+            file.delete();
+        }
+    }
+
+    private static void flushAll(Map<File, OpenFile> openFiles, long now) {
+        Iterator<OpenFile> iterator = openFiles.values().iterator();
+        while (iterator.hasNext()) {
+            OpenFile file = iterator.next();
+            if (now - file.lastUsed > idleCloseMillis) {
+                closeQuietly(file.writer);
+                iterator.remove();
+                continue;
+            }
+            try {
+                file.writer.flush();
+            }
+            catch (IOException ex) {
+                reportError("Error flushing a log file", ex);
+            }
+        }
+    }
+
+    private static void closeQuietly(Writer writer) {
+        try {
+            writer.close();
+        }
+        catch (IOException ex) {
+            reportError("Error closing a log file", ex);
+        }
+    }
+
+    /**
+     * Reports an error from the writer thread straight to stderr.
+     * Debug.echoError can't be used here, as it may log to file itself, and so wait on the writer's own full queue.
+     */
+    private static void reportError(String message, IOException ex) {
+        System.err.println("[Denizen Log Writer] " + message + ": " + ex);
+    }
+}
@@ -0,0 +1,163 @@
+package com.denizenscript.denizencore.utilities.scheduling;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the background work of AsyncSchedulable, async queues, and blocking commands (web requests, SQL, YAML file access).
+ * Implementations may swap in their own with AsyncSchedulable.setExecutor.
+ */
+public abstract class AsyncExecutor implements Executor {
+
+    /**
+     * Runs the task on some thread other than the caller's. Must never run the task on the calling thread,
+     * as tasks are submitted from the main thread, and are often blocking work (SQL, web requests, file access).
+     * Throws RejectedExecutionException if the executor is shut down or too far behind to accept more work.
+     */
+    @Override
+    public abstract void execute(Runnable task);
+
+    /**
+     * Returns how many tasks are currently running.
+     */
+    public abstract int getActiveCount();
+
+    /**
+     * Returns how many tasks are waiting for a thread to run on. Always zero for executors that never queue tasks.
+     */
+    public abstract int getQueuedCount();
+
+    public abstract void shutdown();
+
+    /**
+     * Returns an executor that runs each task on its own virtual thread, if the Java runtime supports them (Java 21 or newer).
+     * Otherwise, returns a pool of at most 'poolSize' platform threads, queueing up to 'queueCapacity' tasks beyond that.
+     */
+    public static AsyncExecutor createDefault(String name, int poolSize, int queueCapacity) {
+        AsyncExecutor virtual = VirtualThreadExecutor.tryCreate(name);
+        if (virtual != null) {
+            return virtual;
+        }
+        return new PooledExecutor(name, poolSize, queueCapacity);
+    }
+
+    static ThreadFactory namedDaemonFactory(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * A fixed-size pool of named daemon threads, with a bounded queue of tasks waiting for a free thread.
+     * Once the queue is full, further tasks are rejected (never run on the submitting thread).
+     * Threads stop after a minute without work, and are started again as needed.
+     */
+    public static class PooledExecutor extends AsyncExecutor {
+
+        public final ThreadPoolExecutor pool;
+
+        public PooledExecutor(String name, int poolSize, int queueCapacity) {
+            pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(queueCapacity),
+                    namedDaemonFactory(name), new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            pool.execute(task);
+        }
+
+        @Override
+        public int getActiveCount() {
+            return pool.getActiveCount();
+        }
+
+        @Override
+        public int getQueuedCount() {
+            return pool.getQueue().size();
+        }
+
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs every task on a new virtual thread. Tasks never wait in a queue, so a task blocked on I/O doesn't hold up any other,
+     * and getQueuedCount is always zero.
+     */
+    public static class VirtualThreadExecutor extends AsyncExecutor {
+
+        public final ExecutorService service;
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        public VirtualThreadExecutor(ExecutorService service) {
+            this.service = service;
+        }
+
+        /**
+         * Returns a virtual thread executor, or null if the runtime doesn't support virtual threads.
+         * Uses reflection, as Denizen is still built for older Java versions.
+         */
+        public static VirtualThreadExecutor tryCreate(String name) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + " ", 1L);
+                ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+                Method create = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return new VirtualThreadExecutor((ExecutorService) create.invoke(null, factory));
+            }
+            catch (Throwable ex) {
+                // Older runtime, or virtual threads are only available as a preview feature.
+                return null;
+            }
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            active.incrementAndGet();
+            try {
+                service.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        }
+                        finally {
+                            active.decrementAndGet();
+                        }
+                    }
+                });
+            }
+            catch (RejectedExecutionException ex) {
+                active.decrementAndGet();
+                throw ex;
+            }
+        }
+
+        @Override
+        public int getActiveCount() {
+            return active.get();
+        }
+
+        @Override
+        public int getQueuedCount() {
+            return 0;
+        }
+
+        @Override
+        public void shutdown() {
+            service.shutdown();
+        }
+    }
+}
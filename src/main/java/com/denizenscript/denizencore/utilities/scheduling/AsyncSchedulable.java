@@ -1,13 +1,36 @@
 package com.denizenscript.denizencore.utilities.scheduling;
 
 import com.denizenscript.denizencore.DenizenCore;
+import com.denizenscript.denizencore.utilities.debugging.Debug;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AsyncSchedulable extends Schedulable {
 
-    public static final Executor executor = Executors.newCachedThreadPool();
+    /**
+     * The maximum number of platform threads running async tasks, when virtual threads aren't available.
+     */
+    public static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * How many async tasks may wait for a free thread before more are rejected, when virtual threads aren't available.
+     */
+    public static final int QUEUE_CAPACITY = 4096;
+
+    /**
+     * The executor for all async work. Volatile, as it may be swapped by setExecutor while other threads are submitting work.
+     */
+    public static volatile AsyncExecutor executor = AsyncExecutor.createDefault("Denizen Async Worker", POOL_SIZE, QUEUE_CAPACITY);
+
+    /**
+     * Replaces the executor used for all async work. The previous executor is shut down, letting its running tasks finish.
+     */
+    public static void setExecutor(AsyncExecutor newExecutor) {
+        AsyncExecutor oldExecutor = executor;
+        executor = newExecutor;
+        oldExecutor.shutdown();
+    }
+
     protected final Schedulable schedulable;
 
     public AsyncSchedulable(Schedulable schedulable) {
@@ -17,7 +40,12 @@ public class AsyncSchedulable extends Schedulable {
             @Override
             public void run() {
                 if (DenizenCore.MAIN_THREAD == Thread.currentThread()) {
-                    executor.execute(runnable);
+                    try {
+                        executor.execute(runnable);
+                    }
+                    catch (RejectedExecutionException ex) {
+                        Debug.echoError("Async task rejected, as the async executor is shut down or has too much work queued.");
+                    }
                 }
                 else {
                     runnable.run();
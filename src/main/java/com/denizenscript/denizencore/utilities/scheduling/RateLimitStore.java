@@ -0,0 +1,98 @@
+package com.denizenscript.denizencore.utilities.scheduling;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks rate limits for the RateLimit command, as token buckets: each key may be used up to 'burst' times in a row,
+ * and regains one use each 'duration' milliseconds. A burst of 1 is a plain "once per duration" limit.
+ * Keys are dropped once their bucket is full again (at which point they're the same as an unused key),
+ * and the store never holds more than 'maxEntries' keys (the oldest keys are dropped beyond that).
+ * Safe to use from any thread.
+ */
+public class RateLimitStore {
+
+    public static final RateLimitStore instance = new RateLimitStore();
+
+    /**
+     * The most keys to track at once. If more keys are in use than this, the least recently added are dropped early.
+     */
+    public static int maxEntries = 100000;
+
+    /**
+     * How often expired keys are swept out.
+     */
+    public static long sweepIntervalMillis = 30 * 1000;
+
+    private static final class Bucket {
+
+        double tokens;
+
+        long updated;
+
+        long expires;
+    }
+
+    private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<String, Bucket>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private long lastSweep = System.currentTimeMillis();
+
+    /**
+     * Tries to use the key once. Returns 0 if allowed, or else how many milliseconds until it will next be allowed.
+     */
+    public synchronized long tryUse(String key, long durationMillis, int burst) {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep > sweepIntervalMillis) {
+            sweep(now);
+        }
+        if (durationMillis <= 0) {
+            return 0;
+        }
+        burst = Math.max(1, burst);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null || now >= bucket.expires) {
+            if (bucket != null) {
+                // Re-insert so the LinkedHashMap order stays close to expiry order
+                buckets.remove(key);
+            }
+            bucket = new Bucket();
+            bucket.tokens = burst;
+        }
+        else {
+            bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.updated) / (double) durationMillis);
+        }
+        bucket.updated = now;
+        if (bucket.tokens < 1) {
+            buckets.put(key, bucket);
+            return (long) Math.ceil((1 - bucket.tokens) * durationMillis);
+        }
+        bucket.tokens -= 1;
+        bucket.expires = now + (long) Math.ceil((burst - bucket.tokens) * durationMillis);
+        buckets.put(key, bucket);
+        return 0;
+    }
+
+    private void sweep(long now) {
+        lastSweep = now;
+        Iterator<Bucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (now >= iterator.next().expires) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return buckets.size();
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+    }
+}
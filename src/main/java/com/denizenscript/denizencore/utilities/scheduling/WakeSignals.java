@@ -0,0 +1,211 @@
+package com.denizenscript.denizencore.utilities.scheduling;
+
+import com.denizenscript.denizencore.scripts.ScriptEntry;
+import com.denizenscript.denizencore.scripts.queues.ScriptQueue;
+import com.denizenscript.denizencore.tags.Attribute;
+import com.denizenscript.denizencore.utilities.CoreUtilities;
+
+import java.util.*;
+
+/**
+ * Named signals that let a waiting script (see the WaitUntil command) know when something it depends on may have changed,
+ * so that it only needs to re-check its condition then, rather than polling on a timer.
+ * Signals are plain strings, such as "definition:<queue id>:<name>", "yaml:<ID>" or "event:<event name>".
+ */
+public class WakeSignals {
+
+    /**
+     * Maps a tag to the signal that is fired whenever that tag's value may change.
+     * A resolver must only return a signal if that signal covers the whole tag, including every attribute after the base:
+     * for example '<[def]>' is covered by the definition's signal, but '<[def].is_online>' is not, as it depends on outside state.
+     * Implementations may add their own, for example to tie flag tags to signals fired by flag changes.
+     */
+    public static abstract class TagSignalResolver {
+
+        /**
+         * Returns the signal for a tag, or null if this resolver can't cover the whole tag.
+         * The attribute is positioned at the tag base, and has no contexts containing tags (so contexts may be read raw from its parts).
+         */
+        public abstract String getSignal(Attribute attribute, ScriptEntry entry);
+    }
+
+    public static class WakeListener {
+
+        public volatile boolean signalled = false;
+
+        Collection<String> signals;
+    }
+
+    public static final List<TagSignalResolver> resolvers = new ArrayList<>();
+
+    private static final HashMap<String, List<WakeListener>> listeners = new HashMap<>();
+
+    private static volatile int listenerCount = 0;
+
+    static {
+        // Only a bare definition tag, like '<[name]>', is covered
+        resolvers.add(new TagSignalResolver() {
+            @Override
+            public String getSignal(Attribute attribute, ScriptEntry entry) {
+                if (attribute.attributes.length != 1 || !attribute.hasContext(1) || entry == null || entry.getResidingQueue() == null) {
+                    return null;
+                }
+                String base = attribute.getAttributeWithoutContext(1);
+                if (base.equals("") || base.equals("def") || base.equals("definition") || base.equals("d")) {
+                    return definitionSignal(entry.getResidingQueue(), attribute.attributes[0].context);
+                }
+                return null;
+            }
+        });
+        // Only '<yaml.list>' and direct reads of a YAML document's contents, like '<yaml[id].read[path]>', are covered.
+        // Changes made to a document other than through the YAML command (such as by an implementation) don't fire signals.
+        resolvers.add(new TagSignalResolver() {
+            @Override
+            public String getSignal(Attribute attribute, ScriptEntry entry) {
+                if (attribute.attributes.length != 2 || !attribute.getAttributeWithoutContext(1).equals("yaml")) {
+                    return null;
+                }
+                String tag = attribute.getAttributeWithoutContext(2);
+                if (!attribute.hasContext(1)) {
+                    return tag.equals("list") ? "yaml" : null;
+                }
+                if (yamlContentTags.contains(tag)) {
+                    return yamlSignal(attribute.attributes[0].context);
+                }
+                return null;
+            }
+        });
+    }
+
+    private static final Set<String> yamlContentTags = new HashSet<>(Arrays.asList("read", "contains", "is_list", "list_keys", "list_deep_keys", "to_json", "to_text"));
+
+    public static String definitionSignal(ScriptQueue queue, String name) {
+        return "definition:" + queue.id + ":" + CoreUtilities.toLowerCase(name);
+    }
+
+    public static String yamlSignal(String id) {
+        return "yaml:" + id.toUpperCase();
+    }
+
+    /**
+     * Event names are matched ignoring spaces and capitalization, so "delta time" matches the "DeltaTime" event.
+     */
+    public static String eventSignal(String eventName) {
+        return "event:" + CoreUtilities.toLowerCase(eventName.replace(" ", ""));
+    }
+
+    /**
+     * Returns whether anything is listening for signals at all, so that signal sources can skip building signal names when nothing is waiting.
+     */
+    public static boolean hasListeners() {
+        return listenerCount > 0;
+    }
+
+    public static void listen(WakeListener listener, Collection<String> signals) {
+        synchronized (listeners) {
+            listener.signals = signals;
+            for (String signal : signals) {
+                List<WakeListener> list = listeners.get(signal);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    listeners.put(signal, list);
+                }
+                list.add(listener);
+            }
+            listenerCount++;
+        }
+    }
+
+    public static void stopListening(WakeListener listener) {
+        synchronized (listeners) {
+            if (listener.signals == null) {
+                return;
+            }
+            for (String signal : listener.signals) {
+                List<WakeListener> list = listeners.get(signal);
+                if (list != null) {
+                    list.remove(listener);
+                    if (list.isEmpty()) {
+                        listeners.remove(signal);
+                    }
+                }
+            }
+            listener.signals = null;
+            listenerCount--;
+        }
+    }
+
+    /**
+     * Marks every listener for the signal as signalled. Listeners re-check their condition on their own schedule.
+     */
+    public static void fire(String signal) {
+        if (listenerCount == 0) {
+            return;
+        }
+        synchronized (listeners) {
+            List<WakeListener> list = listeners.get(signal);
+            if (list != null) {
+                for (WakeListener listener : list) {
+                    listener.signalled = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the set of signals covering every tag in the arguments,
+     * or null if any tag can't be tied to a signal (and so the arguments must be polled instead).
+     */
+    public static Set<String> getSignalsForTags(List<String> args, ScriptEntry entry) {
+        Set<String> signals = new HashSet<>();
+        for (String arg : args) {
+            for (int start = arg.indexOf('<'); start != -1; start = arg.indexOf('<', start + 1)) {
+                int end = findTagEnd(arg, start);
+                if (end == -1) {
+                    continue;
+                }
+                String signal = getSignalForTag(arg.substring(start + 1, end), entry);
+                if (signal == null) {
+                    return null;
+                }
+                signals.add(signal);
+            }
+        }
+        return signals;
+    }
+
+    private static int findTagEnd(String arg, int start) {
+        int depth = 0;
+        for (int i = start + 1; i < arg.length(); i++) {
+            char c = arg.charAt(i);
+            if (c == '<') {
+                depth++;
+            }
+            else if (c == '>') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private static String getSignalForTag(String tag, ScriptEntry entry) {
+        // Tags with fallbacks, values or inner tags are too complex to tie to a signal, so just poll them
+        if (tag.indexOf('|') != -1 || tag.indexOf(':') != -1 || tag.indexOf('<') != -1 || tag.startsWith("!") || tag.startsWith("^")) {
+            return null;
+        }
+        Attribute attribute = new Attribute(tag, entry, null);
+        if (attribute.attributes.length == 0) {
+            return null;
+        }
+        for (TagSignalResolver resolver : resolvers) {
+            String signal = resolver.getSignal(attribute, entry);
+            if (signal != null) {
+                return signal;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,316 @@
+package com.denizenscript.denizencore.utilities.sql;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A small pool of JDBC connections to a single database, used by the SQL command.
+ * Connections are opened lazily up to maxSize, validated before reuse once they've been idle a while,
+ * and closed once they've been idle for longer than idleTimeoutMillis.
+ * Each pooled connection keeps its own LRU cache of prepared statements.
+ * The pool only relies on a JDBC url and connection properties, so it works with any driver, including in-process databases.
+ */
+public class SQLConnectionPool {
+
+    public final String url;
+
+    public final Properties properties;
+
+    /**
+     * The maximum number of connections open at once (both idle and in use).
+     */
+    public int maxSize;
+
+    /**
+     * Idle connections beyond this age are closed rather than reused. Zero or less disables idle eviction.
+     */
+    public long idleTimeoutMillis = 5 * 60 * 1000;
+
+    /**
+     * Idle connections beyond this age are checked with Connection.isValid before being handed out again.
+     */
+    public long validateAfterMillis = 30 * 1000;
+
+    public int validationTimeoutSeconds = 5;
+
+    /**
+     * How long 'borrow' waits for a connection to be released when the pool is full.
+     * Callers on the main thread should use 'borrow(0)' instead, to fail immediately rather than stall the server.
+     */
+    public long borrowTimeoutMillis = 30 * 1000;
+
+    /**
+     * The maximum number of prepared statements cached per connection.
+     */
+    public int statementCacheSize = 32;
+
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+
+    private int openCount = 0;
+
+    private boolean closed = false;
+
+    public SQLConnectionPool(String url, Properties properties, int maxSize) {
+        this.url = url;
+        this.properties = properties;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public class PooledConnection {
+
+        public final Connection connection;
+
+        public long lastUsed;
+
+        private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        public PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Returns a prepared statement for the query, reusing a cached one where possible.
+         * The returned statement must not be closed by the caller.
+         */
+        public PreparedStatement prepare(String query) throws SQLException {
+            PreparedStatement statement = statements.get(query);
+            if (statement != null && !statement.isClosed()) {
+                statement.clearParameters();
+                return statement;
+            }
+            statement = connection.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
+            statements.put(query, statement);
+            return statement;
+        }
+
+        public int cachedStatementCount() {
+            return statements.size();
+        }
+
+        public void close() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            }
+            catch (SQLException ex) {
+                // Ignore
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        }
+        catch (SQLException ex) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Opens a single connection and adds it to the pool, to verify that the database is reachable.
+     */
+    public void connect() throws SQLException {
+        release(borrow());
+    }
+
+    /**
+     * Takes a connection from the pool, opening a new one if none are idle and the pool is not full.
+     * Waits up to borrowTimeoutMillis for a connection to be released if the pool is full.
+     * Must always be followed by a call to 'release'.
+     */
+    public PooledConnection borrow() throws SQLException {
+        return borrow(borrowTimeoutMillis);
+    }
+
+    /**
+     * Takes a connection from the pool, waiting up to timeoutMillis for one to be released if the pool is full.
+     * A timeout of zero or less fails immediately when no connection is free.
+     * Must always be followed by a call to 'release'.
+     */
+    public PooledConnection borrow(long timeoutMillis) throws SQLException {
+        long waitUntil = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            PooledConnection toValidate;
+            List<PooledConnection> expired;
+            boolean openNew = false;
+            String failure = null;
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed.");
+                }
+                expired = removeExpired();
+                toValidate = idle.pollLast();
+                if (toValidate == null) {
+                    if (openCount < maxSize) {
+                        openCount++;
+                        openNew = true;
+                    }
+                    else if (expired == null) {
+                        long remaining = waitUntil - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            failure = timeoutMillis <= 0 ? "No free connection available (pool size " + maxSize + ")."
+                                    : "Timed out waiting for a free connection (pool size " + maxSize + ").";
+                        }
+                        else {
+                            try {
+                                wait(remaining);
+                            }
+                            catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                                throw new SQLException("Interrupted while waiting for a free connection.");
+                            }
+                        }
+                    }
+                }
+            }
+            // Expired connections are closed outside the lock, as closing can block on the network.
+            closeAll(expired);
+            if (openNew) {
+                break;
+            }
+            if (failure != null) {
+                throw new SQLException(failure);
+            }
+            if (toValidate == null) {
+                continue;
+            }
+            if (System.currentTimeMillis() - toValidate.lastUsed < validateAfterMillis || isValid(toValidate)) {
+                return toValidate;
+            }
+            toValidate.close();
+            synchronized (this) {
+                openCount--;
+                notifyAll();
+            }
+        }
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, properties));
+        }
+        catch (SQLException ex) {
+            synchronized (this) {
+                openCount--;
+                notifyAll();
+            }
+            throw ex;
+        }
+    }
+
+    private boolean isValid(PooledConnection connection) {
+        try {
+            return connection.connection.isValid(validationTimeoutSeconds);
+        }
+        catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool.
+     */
+    public void release(PooledConnection connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        synchronized (this) {
+            if (!closed) {
+                idle.addLast(connection);
+                notifyAll();
+                return;
+            }
+            openCount--;
+        }
+        connection.close();
+    }
+
+    /**
+     * Closes any idle connections that have gone unused for longer than idleTimeoutMillis.
+     */
+    public void evictIdle() {
+        List<PooledConnection> expired;
+        synchronized (this) {
+            expired = removeExpired();
+        }
+        closeAll(expired);
+    }
+
+    /**
+     * Removes idle connections past idleTimeoutMillis from the pool, and returns them to be closed once the lock is released.
+     * Must be called while holding the pool's lock.
+     */
+    private List<PooledConnection> removeExpired() {
+        if (idleTimeoutMillis <= 0) {
+            return null;
+        }
+        List<PooledConnection> expired = null;
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            PooledConnection connection = iterator.next();
+            if (now - connection.lastUsed > idleTimeoutMillis) {
+                iterator.remove();
+                openCount--;
+                if (expired == null) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(connection);
+            }
+        }
+        if (expired != null) {
+            notifyAll();
+        }
+        return expired;
+    }
+
+    private static void closeAll(List<PooledConnection> connections) {
+        if (connections == null) {
+            return;
+        }
+        for (PooledConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes all idle connections, and causes connections still in use to close when released.
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            openCount -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        closeAll(toClose);
+    }
+}
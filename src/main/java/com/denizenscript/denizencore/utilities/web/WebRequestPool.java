@@ -0,0 +1,203 @@
+package com.denizenscript.denizencore.utilities.web;
+
+import com.denizenscript.denizencore.utilities.scheduling.AsyncSchedulable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.*;
+
+/**
+ * Limits how many outgoing web requests run at once, both overall and per host, and enforces a total time limit on each request.
+ * Requests run on the shared async executor (see AsyncSchedulable), but requests beyond the limits wait in line here, without holding a thread.
+ */
+public class WebRequestPool {
+
+    public final ScheduledExecutorService timeoutWatcher;
+
+    public final int maxTotal;
+
+    public final int maxPerHost;
+
+    public final int maxQueued;
+
+    private final HashMap<String, Integer> activePerHost = new HashMap<>();
+
+    private final ArrayDeque<PendingRequest> waiting = new ArrayDeque<>();
+
+    private int totalActive = 0;
+
+    private static class PendingRequest {
+
+        final String host;
+
+        final Runnable request;
+
+        final Runnable onRejected;
+
+        PendingRequest(String host, Runnable request, Runnable onRejected) {
+            this.host = host;
+            this.request = request;
+            this.onRejected = onRejected;
+        }
+    }
+
+    public WebRequestPool(String name, int maxTotal, int maxQueued, int maxPerHost) {
+        this.maxTotal = Math.max(1, maxTotal);
+        this.maxPerHost = Math.max(1, maxPerHost);
+        this.maxQueued = maxQueued;
+        timeoutWatcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + " Timeout");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Queues a request to run once it is within both the overall and per-host limits.
+     * Returns false if too many requests are already waiting.
+     * If the async executor refuses the request when its turn comes, 'onRejected' is run instead (possibly on another thread).
+     */
+    public boolean submit(String host, Runnable request, Runnable onRejected) {
+        PendingRequest pending = new PendingRequest(host, request, onRejected);
+        synchronized (this) {
+            if (!canStart(host)) {
+                if (waiting.size() >= maxQueued) {
+                    return false;
+                }
+                waiting.add(pending);
+                return true;
+            }
+            markStarted(host);
+        }
+        start(pending);
+        return true;
+    }
+
+    private boolean canStart(String host) {
+        if (totalActive >= maxTotal) {
+            return false;
+        }
+        Integer hostActive = activePerHost.get(host);
+        return hostActive == null || hostActive < maxPerHost;
+    }
+
+    private void markStarted(String host) {
+        totalActive++;
+        Integer hostActive = activePerHost.get(host);
+        activePerHost.put(host, hostActive == null ? 1 : hostActive + 1);
+    }
+
+    private void start(PendingRequest toStart) {
+        while (toStart != null) {
+            final PendingRequest pending = toStart;
+            try {
+                AsyncSchedulable.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            pending.request.run();
+                        }
+                        finally {
+                            onComplete(pending.host);
+                        }
+                    }
+                });
+                return;
+            }
+            catch (RejectedExecutionException ex) {
+                // The request never started, so give its slots back (handing them to the next waiting request, if any)
+                toStart = release(pending.host);
+                pending.onRejected.run();
+            }
+        }
+    }
+
+    private void onComplete(String host) {
+        PendingRequest next = release(host);
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    /**
+     * Frees a slot for the host, and returns the next waiting request that may now start (already counted as started), if any.
+     */
+    private PendingRequest release(String host) {
+        PendingRequest next = null;
+        synchronized (this) {
+            totalActive--;
+            int hostActive = activePerHost.get(host) - 1;
+            if (hostActive == 0) {
+                activePerHost.remove(host);
+            }
+            else {
+                activePerHost.put(host, hostActive);
+            }
+            Iterator<PendingRequest> iterator = waiting.iterator();
+            while (iterator.hasNext()) {
+                PendingRequest candidate = iterator.next();
+                if (canStart(candidate.host)) {
+                    iterator.remove();
+                    markStarted(candidate.host);
+                    next = candidate;
+                    break;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Forcibly disconnects the connection if it is still in use after the given time, causing any blocked read or write to fail.
+     * The returned future should be cancelled once the request is done.
+     */
+    public ScheduledFuture<?> enforceTimeout(final HttpURLConnection connection, long millis) {
+        return timeoutWatcher.schedule(new Runnable() {
+            @Override
+            public void run() {
+                connection.disconnect();
+            }
+        }, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads out and closes the rest of a response stream, so that the underlying keep-alive connection can be reused.
+     */
+    public static void drain(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            byte[] buffer = new byte[8 * 1024];
+            while (stream.read(buffer) > 0) {
+                // Discard
+            }
+        }
+        catch (IOException ex) {
+            // Ignore
+        }
+        finally {
+            try {
+                stream.close();
+            }
+            catch (IOException ex) {
+                // Ignore
+            }
+        }
+    }
+
+    public synchronized int getActiveCount() {
+        return totalActive;
+    }
+
+    public synchronized int getQueuedCount() {
+        return waiting.size();
+    }
+}